@@ -0,0 +1,55 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the blog post mapping and serialization paths.
+ * <p>
+ * The payload is controlled by the number of posts and the length of their text.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BlogPostBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int posts;
+
+    @Param({"64", "4096"})
+    public int textLength;
+
+    private final BlogPostMapper blogPostMapper = Mappers.getMapper(BlogPostMapper.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BlogPostDto blogPostDto;
+    private Set<BlogPostDto> blogPostDtos;
+
+    @Setup
+    public void setUp() {
+        String text = "x".repeat(textLength);
+        blogPostDto = new BlogPostDto("title", text);
+        blogPostDtos = new HashSet<>();
+        for (int i = 0; i < posts; i++) {
+            blogPostDtos.add(new BlogPostDto("title-" + i, text));
+        }
+    }
+
+    @Benchmark
+    public BlogPost blogPostDtoToEntity() {
+        return blogPostMapper.blogPostDtoToEntity(blogPostDto);
+    }
+
+    @Benchmark
+    public byte[] serializeBlogPostDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(blogPostDtos);
+    }
+}
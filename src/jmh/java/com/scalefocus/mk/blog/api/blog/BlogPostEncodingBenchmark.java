@@ -0,0 +1,83 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the encodings of the blog post listings.
+ * <p>
+ * Encodes the same set of posts as JSON, CBOR, Smile and Protobuf, like the tag listing does,
+ * into a reused buffer. The size of the payload of every encoding is printed once per trial,
+ * next to the encoding throughput and allocation rate reported by JMH.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BlogPostEncodingBenchmark {
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    public String encoding;
+
+    @Param({"100", "1000"})
+    public int posts;
+
+    @Param({"64", "4096"})
+    public int textLength;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private Encoder encoder;
+    private Set<BlogPostDto> blogPostDtos;
+
+    @Setup
+    public void setUp() throws IOException {
+        encoder = switch (encoding) {
+            case "json" -> jackson(new ObjectMapper());
+            case "cbor" -> jackson(new ObjectMapper(new CBORFactory()));
+            case "smile" -> jackson(new ObjectMapper(new SmileFactory()));
+            case "protobuf" -> BlogPostProtobufHttpMessageConverter::write;
+            default -> throw new IllegalArgumentException("Unknown encoding: " + encoding);
+        };
+        blogPostDtos = new HashSet<>();
+        for (int i = 0; i < posts; i++) {
+            blogPostDtos.add(new BlogPostDto("title-" + i, "Lorem ipsum dolor sit amet. ".repeat(textLength / 28 + 1)
+                    .substring(0, textLength)));
+        }
+        System.out.printf("%n%s payload of %d posts of %d characters: %d bytes%n",
+                encoding, posts, textLength, encode());
+    }
+
+    @Benchmark
+    public int encodeBlogPostDtos() throws IOException {
+        return encode();
+    }
+
+    private int encode() throws IOException {
+        buffer.reset();
+        encoder.encode(blogPostDtos, buffer);
+        return buffer.size();
+    }
+
+    private static Encoder jackson(ObjectMapper objectMapper) {
+        return (value, output) -> objectMapper.writeValue(output, value);
+    }
+
+    /**
+     * Writes a listing in one encoding.
+     */
+    @FunctionalInterface
+    private interface Encoder {
+        void encode(Object value, OutputStream output) throws IOException;
+    }
+}
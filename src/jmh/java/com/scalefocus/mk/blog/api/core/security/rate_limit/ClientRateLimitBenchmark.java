@@ -0,0 +1,139 @@
+package com.scalefocus.mk.blog.api.core.security.rate_limit;
+
+import com.scalefocus.mk.blog.api.shared.auth.AuthService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link ClientRateLimit} interceptor on the in-memory store.
+ * <p>
+ * The benchmarks measure the admission path: key resolution, cache lookup and the
+ * compare-and-set of the client state. Each client is allowed the highest rate the algorithm
+ * can express over a one second period: a billion requests per second for GCRA and, as its
+ * bucket holds at most 65,535 tokens refilled one per microsecond, a million requests per
+ * second for the token bucket. Requests are spread evenly over the clients, so every request
+ * is admitted unless a single client exceeds that rate, which only the token bucket does, when
+ * every thread sends from the same address; the admitted and rejected requests are reported
+ * next to the throughput. The number of distinct addresses controls the size of the client
+ * cache and the contention on the state of each client; each thread has its own username.
+ * </p>
+ * <p>
+ * The benchmarks run on {@value #THREADS} threads, so that the compare-and-set retries of
+ * clients shared between threads are measured. The thread count given to JMH on the command
+ * line, such as the {@code jmh.threads} property of the Maven profile, takes precedence, and
+ * should be {@value #THREADS} as well unless another level of contention is wanted.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(ClientRateLimitBenchmark.THREADS)
+public class ClientRateLimitBenchmark {
+
+    static final int THREADS = 4;
+
+    @Param({"1", "1000", "100000"})
+    public int clients;
+
+    @Param({"GCRA", "TOKEN_BUCKET"})
+    public String algorithm;
+
+    private ClientRateLimit ipAddressRateLimit;
+    private ClientRateLimit usernameRateLimit;
+
+    @Setup
+    public void setUp() {
+        RateLimitAlgorithm rateLimitAlgorithm = RateLimitAlgorithm.valueOf(algorithm);
+        RateLimiter rateLimiter = rateLimitAlgorithm == RateLimitAlgorithm.GCRA
+                ? rateLimitAlgorithm.create(1_000_000_000, Duration.ofSeconds(1))
+                : rateLimitAlgorithm.create(65_535, Duration.ofNanos(65_535_000));
+        ipAddressRateLimit = rateLimit(rateLimiter, ClientKeyResolver.ipAddress());
+        usernameRateLimit = rateLimit(rateLimiter, ClientKeyResolver.username(new AuthService()));
+    }
+
+    /**
+     * Per-thread requests, one per client, and the security context of the thread.
+     */
+    @State(Scope.Thread)
+    public static class Requests {
+
+        MockHttpServletRequest[] requests;
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        int next;
+
+        @Setup
+        public void setUp(ClientRateLimitBenchmark benchmark) {
+            requests = new MockHttpServletRequest[benchmark.clients];
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = new MockHttpServletRequest();
+                requests[i].setRemoteAddr("10." + (i >> 16 & 0xFF) + "." + (i >> 8 & 0xFF) + "." + (i & 0xFF));
+            }
+            next = ThreadLocalRandom.current().nextInt(requests.length);
+            Jwt jwt = Jwt.withTokenValue("token")
+                    .header("alg", "none")
+                    .claim("preferred_username", "user-" + Thread.currentThread().threadId())
+                    .issuedAt(Instant.now())
+                    .build();
+            SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+        }
+
+        MockHttpServletRequest nextRequest() {
+            MockHttpServletRequest request = requests[next];
+            next = next + 1 == requests.length ? 0 : next + 1;
+            return request;
+        }
+    }
+
+    /**
+     * Per-thread counts of the admitted and rejected requests, reported with the results.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+
+        public long admitted;
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            admitted = 0;
+            rejected = 0;
+        }
+
+        boolean record(boolean outcome) {
+            if (outcome) {
+                admitted++;
+            } else {
+                rejected++;
+            }
+            return outcome;
+        }
+    }
+
+    @Benchmark
+    public boolean ipAddress(Requests requests, Outcomes outcomes) {
+        return outcomes.record(ipAddressRateLimit.preHandle(requests.nextRequest(), requests.response, null));
+    }
+
+    @Benchmark
+    public boolean username(Requests requests, Outcomes outcomes) {
+        return outcomes.record(usernameRateLimit.preHandle(requests.nextRequest(), requests.response, null));
+    }
+
+    private static ClientRateLimit rateLimit(RateLimiter rateLimiter, ClientKeyResolver clientKeyResolver) {
+        ClientRateLimitCache cache = new ClientRateLimitCache(Long.MAX_VALUE, Duration.ofHours(1));
+        return new ClientRateLimit(new InMemoryRateLimitStore(cache, rateLimiter, Duration.ZERO, MonotonicClock::now),
+                clientKeyResolver);
+    }
+}
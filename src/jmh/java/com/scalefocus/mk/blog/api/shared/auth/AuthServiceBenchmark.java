@@ -0,0 +1,45 @@
+package com.scalefocus.mk.blog.api.shared.auth;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the extraction of the current username from the JWT claims.
+ * <p>
+ * The payload is controlled by the number of additional claims carried by the token.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AuthServiceBenchmark {
+
+    @Param({"0", "50"})
+    public int extraClaims;
+
+    private final AuthService authService = new AuthService();
+
+    @Setup
+    public void setUp() {
+        Jwt.Builder jwt = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .claim("preferred_username", "user-" + Thread.currentThread().threadId())
+                .issuedAt(Instant.now());
+        for (int i = 0; i < extraClaims; i++) {
+            jwt.claim("claim-" + i, "value-" + i);
+        }
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt.build()));
+    }
+
+    @Benchmark
+    public String getCurrentUsername() {
+        return authService.getCurrentUsername();
+    }
+}
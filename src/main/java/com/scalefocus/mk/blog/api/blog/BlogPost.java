@@ -3,6 +3,8 @@ package com.scalefocus.mk.blog.api.blog;
 import com.scalefocus.mk.blog.api.shared.persistence.EntityMarker;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -12,10 +14,13 @@ import java.util.Set;
  * <p>
  * This class maps to the "blog_post" table in the database and contains details about
  * a blog post, including its title, text, owner username, and associated tags.
+ * Posts and their tag collections are kept in the second-level cache.
  * </p>
  */
 @Entity
 @Table(name = "blog_post")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = BlogPost.CACHE_REGION)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -24,11 +29,22 @@ import java.util.Set;
 @ToString(onlyExplicitlyIncluded = true)
 public final class BlogPost implements EntityMarker {
 
+    static final String CACHE_REGION = "blog-post";
+
+    static final String TAGS_CACHE_REGION = "blog-post-tags";
+
+    static final String QUERY_CACHE_REGION = "blog-post-queries";
+
     /**
      * Unique identifier for the blog post.
+     * <p>
+     * Identifiers are allocated from the "blog_post_seq" table in blocks of 50, so that new posts
+     * have their identifier before they are inserted and Hibernate can batch the inserts.
+     * </p>
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "blog_post_seq")
+    @SequenceGenerator(name = "blog_post_seq", sequenceName = "blog_post_seq", allocationSize = 50)
     @ToString.Include
     private Integer id;
 
@@ -56,6 +72,17 @@ public final class BlogPost implements EntityMarker {
     @EqualsAndHashCode.Include
     private String ownerUsername;
 
+    /**
+     * Version of the blog post.
+     * <p>
+     * This field is incremented by every update and used for optimistic locking, so that an
+     * update based on an outdated version of the post is rejected instead of overwriting it.
+     * </p>
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     /**
      * Tags associated with the blog post.
      * <p>
@@ -63,6 +90,7 @@ public final class BlogPost implements EntityMarker {
      * </p>
      */
     @ManyToMany(fetch = FetchType.LAZY, cascade = { CascadeType.PERSIST, CascadeType.MERGE })
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = BlogPost.TAGS_CACHE_REGION)
     @JoinTable(name = "blog_post_tags",
             joinColumns = @JoinColumn(name = "blog_post_id"),
             inverseJoinColumns = @JoinColumn(name = "tag_id"))
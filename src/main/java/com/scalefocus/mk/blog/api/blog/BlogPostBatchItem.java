@@ -0,0 +1,43 @@
+package com.scalefocus.mk.blog.api.blog;
+
+/**
+ * Result of creating one blog post of a batch.
+ *
+ * @param index  the position of the post in the request
+ * @param title  the title of the post
+ * @param status the outcome of the creation
+ * @param id     the identifier of the created post, or null if it was not created
+ */
+public record BlogPostBatchItem(int index, String title, Status status, Integer id) {
+
+    /**
+     * Outcome of creating one blog post of a batch.
+     */
+    public enum Status {
+
+        /**
+         * The post was created.
+         */
+        CREATED,
+
+        /**
+         * The post was not created because its title is missing.
+         */
+        INVALID,
+
+        /**
+         * The post was not created because a post with the same title already exists.
+         */
+        TITLE_EXISTS,
+
+        /**
+         * The post was not created because an earlier post of the batch has the same title.
+         */
+        DUPLICATE_IN_BATCH,
+
+        /**
+         * The post was not created because its chunk could not be persisted.
+         */
+        FAILED
+    }
+}
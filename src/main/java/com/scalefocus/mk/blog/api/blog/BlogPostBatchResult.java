@@ -0,0 +1,26 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import java.util.List;
+
+/**
+ * Result of creating a batch of blog posts.
+ *
+ * @param created  the number of created posts
+ * @param rejected the number of posts that were not created
+ * @param items    the result of every post, in request order
+ */
+public record BlogPostBatchResult(int created, int rejected, List<BlogPostBatchItem> items) {
+
+    /**
+     * Creates the result of a batch from the results of its posts.
+     *
+     * @param items the result of every post, in request order
+     * @return the result of the batch
+     */
+    static BlogPostBatchResult of(List<BlogPostBatchItem> items) {
+        int created = (int) items.stream()
+                .filter(item -> item.status() == BlogPostBatchItem.Status.CREATED)
+                .count();
+        return new BlogPostBatchResult(created, items.size() - created, items);
+    }
+}
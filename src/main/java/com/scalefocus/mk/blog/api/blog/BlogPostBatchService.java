@@ -0,0 +1,158 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.scalefocus.mk.blog.api.shared.auth.AuthService;
+import com.scalefocus.mk.blog.api.shared.exceptions.EntityPersistenceException;
+import com.scalefocus.mk.blog.api.shared.exceptions.InvalidRequestException;
+import com.scalefocus.mk.blog.api.shared.persistence.PersistenceService;
+import com.scalefocus.mk.blog.api.shared.persistence.ReadYourWrites;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Service for creating blog posts in batches.
+ * <p>
+ * The posts of a batch are processed in chunks of a configurable size. For every chunk, the
+ * uniqueness of the titles is checked with a single query, and the new posts are inserted in
+ * one transaction through JDBC batch statements. A chunk that cannot be persisted is rolled
+ * back as a whole without affecting the other chunks, and the outcome of every post is reported
+ * individually.
+ * </p>
+ */
+@Service
+public class BlogPostBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlogPostBatchService.class);
+
+    private final BlogPostRepository blogPostRepository;
+
+    private final PersistenceService persistenceService;
+
+    private final BlogPostMapper blogPostMapper;
+
+    private final AuthService authService;
+
+    private final BlogPostCache blogPostCache;
+
+    private final ReadYourWrites readYourWrites;
+
+    private final int chunkSize;
+
+    private final int maxSize;
+
+    BlogPostBatchService(BlogPostRepository blogPostRepository, PersistenceService persistenceService,
+                         BlogPostMapper blogPostMapper, AuthService authService, BlogPostCache blogPostCache,
+                         ReadYourWrites readYourWrites,
+                         @Value("${blog.batch.chunk-size:500}") int chunkSize,
+                         @Value("${blog.batch.max-size:10000}") int maxSize) {
+        this.blogPostRepository = blogPostRepository;
+        this.persistenceService = persistenceService;
+        this.blogPostMapper = blogPostMapper;
+        this.authService = authService;
+        this.blogPostCache = blogPostCache;
+        this.readYourWrites = readYourWrites;
+        this.chunkSize = chunkSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Creates a batch of blog posts owned by the current user.
+     * <p>
+     * Posts without a title, posts whose title is already used and posts repeating the title of
+     * an earlier post of the batch are rejected; the others are created chunk by chunk. Titles
+     * are compared case-insensitively, like the database does.
+     * </p>
+     *
+     * @param blogPostDtos the blog posts to create
+     * @return the outcome of every post, in request order
+     * @throws InvalidRequestException if the batch holds more posts than allowed
+     */
+    BlogPostBatchResult createBlogPosts(List<BlogPostDto> blogPostDtos) {
+        if (blogPostDtos.size() > maxSize) {
+            throw new InvalidRequestException("A batch may contain at most " + maxSize + " posts.");
+        }
+        String ownerUsername = authService.getCurrentUsername();
+        BlogPostBatchItem[] items = new BlogPostBatchItem[blogPostDtos.size()];
+        Set<String> batchTitles = new HashSet<>();
+        for (int from = 0; from < blogPostDtos.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, blogPostDtos.size());
+            createChunk(blogPostDtos, from, to, ownerUsername, batchTitles, items);
+        }
+        return BlogPostBatchResult.of(Arrays.asList(items));
+    }
+
+    private void createChunk(List<BlogPostDto> blogPostDtos, int from, int to, String ownerUsername,
+                             Set<String> batchTitles, BlogPostBatchItem[] items) {
+        Set<String> existingTitles = findExistingTitles(blogPostDtos.subList(from, to));
+        List<BlogPost> posts = new ArrayList<>(to - from);
+        List<Integer> indexes = new ArrayList<>(to - from);
+        for (int index = from; index < to; index++) {
+            BlogPostDto blogPostDto = blogPostDtos.get(index);
+            String title = blogPostDto == null ? null : blogPostDto.title();
+            if (title == null || title.isBlank()) {
+                items[index] = new BlogPostBatchItem(index, title, BlogPostBatchItem.Status.INVALID, null);
+            } else if (!batchTitles.add(normalize(title))) {
+                items[index] = new BlogPostBatchItem(index, title, BlogPostBatchItem.Status.DUPLICATE_IN_BATCH, null);
+            } else if (existingTitles.contains(normalize(title))) {
+                items[index] = new BlogPostBatchItem(index, title, BlogPostBatchItem.Status.TITLE_EXISTS, null);
+            } else {
+                BlogPost post = blogPostMapper.blogPostDtoToEntity(blogPostDto);
+                post.setOwnerUsername(ownerUsername);
+                posts.add(post);
+                indexes.add(index);
+            }
+        }
+        if (posts.isEmpty()) {
+            return;
+        }
+        boolean persisted = persistChunk(posts);
+        for (int i = 0; i < posts.size(); i++) {
+            BlogPost post = posts.get(i);
+            int index = indexes.get(i);
+            items[index] = persisted
+                    ? new BlogPostBatchItem(index, post.getTitle(), BlogPostBatchItem.Status.CREATED, post.getId())
+                    : new BlogPostBatchItem(index, post.getTitle(), BlogPostBatchItem.Status.FAILED, null);
+        }
+        if (persisted) {
+            readYourWrites.recordWrite();
+            int minId = posts.stream().mapToInt(BlogPost::getId).min().orElseThrow();
+            int maxId = posts.stream().mapToInt(BlogPost::getId).max().orElseThrow();
+            blogPostCache.evictPosts(minId, maxId);
+        }
+    }
+
+    private boolean persistChunk(List<BlogPost> posts) {
+        try {
+            persistenceService.persistAll(posts);
+            return true;
+        } catch (EntityPersistenceException e) {
+            logger.warn("Could not create a chunk of {} blog posts: {}", posts.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private Set<String> findExistingTitles(List<BlogPostDto> blogPostDtos) {
+        List<String> titles = blogPostDtos.stream()
+                .filter(blogPostDto -> blogPostDto != null && blogPostDto.title() != null)
+                .map(BlogPostDto::title)
+                .toList();
+        if (titles.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> existingTitles = new HashSet<>();
+        blogPostRepository.findExistingTitles(titles).forEach(title -> existingTitles.add(normalize(title)));
+        return existingTitles;
+    }
+
+    private static String normalize(String title) {
+        return title.toLowerCase(Locale.ROOT);
+    }
+}
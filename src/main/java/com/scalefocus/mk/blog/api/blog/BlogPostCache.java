@@ -0,0 +1,229 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.scalefocus.mk.blog.api.shared.persistence.SharedCacheLoad;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for blog post listings.
+ * <p>
+ * This component caches listing pages and posts-by-tag results in bounded in-process caches
+ * with size- and time-based eviction. Writes invalidate only the entries they affect: a change
+ * to a post evicts the pages whose identifier range contains it, and a change to a tag evicts
+ * that tag's entry. Tags are keyed by their identifier, resolved by the BlogTagResolver, so
+ * that every spelling the database takes for a tag, such as one differing in case or accents,
+ * shares its entry and version. Invalidations made inside a transaction are repeated once it
+ * commits, so that a load racing with the write cannot cache the data read before the commit.
+ * Loads are {@link SharedCacheLoad}s, so that shortly after a write they read from the primary
+ * and never from a replica that has not applied the write yet. Hit, miss and eviction
+ * statistics are published to the meter registry under the {@value #PAGES_CACHE} and
+ * {@value #TAGS_CACHE} cache names.
+ * </p>
+ * <p>
+ * The component also stamps every listing with a version, from which entity tags are derived.
+ * The version of the post listing changes with every post change and the version of a tag's
+ * listing with every change to that tag. Versions are local to the application instance, so
+ * they also change once per cache time to live; changes made by other instances are thus
+ * picked up as late as cached listings are.
+ * </p>
+ */
+@Component
+final class BlogPostCache {
+
+    static final String PAGES_CACHE = "blog.posts.pages";
+    static final String TAGS_CACHE = "blog.posts.tags";
+
+    private final Cache<PageKey, BlogPostPage> pages;
+
+    private final Cache<Integer, Set<BlogPostDto>> postsByTag;
+
+    /**
+     * Incremented on every invalidation, so that loads racing with a write are not cached.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Distinguishes the versions of this instance from those of other and earlier instances.
+     */
+    private final String instanceId = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    private final long ttlMillis;
+
+    private final AtomicLong postsVersion = new AtomicLong();
+
+    /**
+     * Versions of the recently changed or read tags, drawn from {@link #generation}.
+     * <p>
+     * A tag missing from this cache gets the current generation, which is at least as high as
+     * any version previously given to it and equal to one only if no change happened since.
+     * </p>
+     */
+    private final Cache<Integer, Long> tagVersions;
+
+    BlogPostCache(@Value("${blog.cache.max-size:10000}") long maximumSize,
+                  @Value("${blog.cache.ttl:10m}") Duration ttl,
+                  MeterRegistry meterRegistry) {
+        this.ttlMillis = Math.max(ttl.toMillis(), 1);
+        this.tagVersions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.postsByTag = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, PAGES_CACHE);
+        CaffeineCacheMetrics.monitor(meterRegistry, postsByTag, TAGS_CACHE);
+    }
+
+    /**
+     * Returns the cached listing page starting after the given identifier, loading it on a miss.
+     *
+     * @param afterId  the identifier after which the page starts (exclusive)
+     * @param pageSize the size of the page
+     * @param loader   the loader used on a cache miss
+     * @return the listing page
+     */
+    BlogPostPage getPage(int afterId, int pageSize, Supplier<BlogPostPage> loader) {
+        PageKey key = new PageKey(afterId, pageSize);
+        long observedGeneration = generation.get();
+        BlogPostPage page = pages.get(key, k -> SharedCacheLoad.load(loader));
+        if (generation.get() != observedGeneration) {
+            pages.invalidate(key);
+        }
+        return page;
+    }
+
+    /**
+     * Returns the cached posts for the given tag, loading them on a miss.
+     *
+     * @param tagId  the identifier of the tag
+     * @param loader the loader used on a cache miss
+     * @return the posts associated with the tag
+     */
+    Set<BlogPostDto> getPostsByTag(int tagId, Supplier<Set<BlogPostDto>> loader) {
+        long observedGeneration = generation.get();
+        Set<BlogPostDto> posts = postsByTag.get(tagId, k -> Set.copyOf(SharedCacheLoad.load(loader)));
+        if (generation.get() != observedGeneration) {
+            postsByTag.invalidate(tagId);
+        }
+        return posts;
+    }
+
+    /**
+     * Evicts every cached listing page whose identifier range contains the given post.
+     * <p>
+     * A page covers the identifiers after its starting point up to its last post; the last
+     * page of the listing is open-ended, so newly created posts evict it as well.
+     * </p>
+     *
+     * @param postId the identifier of the created, updated or removed post
+     */
+    void evictPost(int postId) {
+        evictPosts(postId, postId);
+    }
+
+    /**
+     * Evicts every cached listing page whose identifier range overlaps the given range.
+     *
+     * @param fromId the lowest identifier of the created, updated or removed posts
+     * @param toId   the highest identifier of the created, updated or removed posts
+     */
+    void evictPosts(int fromId, int toId) {
+        invalidate(() -> {
+            generation.incrementAndGet();
+            postsVersion.incrementAndGet();
+            pages.asMap().entrySet().removeIf(entry -> overlaps(entry.getKey(), entry.getValue(), fromId, toId));
+        });
+    }
+
+    /**
+     * Evicts the cached posts of the given tag.
+     *
+     * @param tagId the identifier of the tag whose posts changed
+     */
+    void evictTag(int tagId) {
+        invalidate(() -> {
+            tagVersions.put(tagId, generation.incrementAndGet());
+            postsByTag.invalidate(tagId);
+        });
+    }
+
+    /**
+     * Returns the entity tag of the current version of the post listing.
+     *
+     * @return a strong entity tag
+     */
+    String postsETag() {
+        return eTag("posts", postsVersion.get());
+    }
+
+    /**
+     * Returns the entity tag of the current version of the posts of the given tag.
+     *
+     * @param tagId the identifier of the tag
+     * @return a strong entity tag
+     */
+    String tagETag(int tagId) {
+        return eTag("tag", tagVersions.get(tagId, k -> generation.get()));
+    }
+
+    /**
+     * Returns the entity tag of the posts of a tag that does not exist.
+     * <p>
+     * Such a listing is always empty. Once the tag is created, its listing gets the entity tag
+     * of its identifier, which never matches this one.
+     * </p>
+     *
+     * @return a strong entity tag
+     */
+    String missingTagETag() {
+        return eTag("no-tag", 0);
+    }
+
+    private String eTag(String listing, long version) {
+        long period = System.currentTimeMillis() / ttlMillis;
+        return "\"" + listing + "-" + instanceId + "-" + Long.toString(period, 36) + "-" + Long.toString(version, 36) + "\"";
+    }
+
+    private static void invalidate(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private static boolean overlaps(PageKey key, BlogPostPage page, int fromId, int toId) {
+        if (toId <= key.afterId()) {
+            return false;
+        }
+        List<BlogPostSummary> posts = page.posts();
+        return page.nextCursor() == null || fromId <= posts.get(posts.size() - 1).id();
+    }
+
+    private record PageKey(int afterId, int pageSize) {
+    }
+}
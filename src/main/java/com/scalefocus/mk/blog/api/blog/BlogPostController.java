@@ -1,16 +1,24 @@
 package com.scalefocus.mk.blog.api.blog;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.List;
 import java.util.Set;
 
 /**
  * REST controller for managing blog posts.
  * <p>
  * This controller provides endpoints for creating, retrieving, updating, and deleting blog posts,
- * as well as for adding and removing tags from blog posts.
+ * as well as for creating blog posts in batches, searching blog posts, adding and removing tags
+ * from blog posts and exporting the whole corpus. Listings are encoded as JSON, CBOR, Smile or
+ * Protobuf, as negotiated through the Accept header.
  * </p>
  */
 @RestController
@@ -19,8 +27,26 @@ public final class BlogPostController {
 
     private final BlogPostService blogPostService;
 
-    public BlogPostController(BlogPostService blogPostService) {
+    private final BlogPostExportService blogPostExportService;
+
+    private final BlogPostBatchService blogPostBatchService;
+
+    private final BlogPostSearchService blogPostSearchService;
+
+    private final BlogPostExportLimiter blogPostExportLimiter;
+
+    private final BlogPostListingNegotiator blogPostListingNegotiator;
+
+    public BlogPostController(BlogPostService blogPostService, BlogPostExportService blogPostExportService,
+                              BlogPostBatchService blogPostBatchService, BlogPostSearchService blogPostSearchService,
+                              BlogPostExportLimiter blogPostExportLimiter,
+                              BlogPostListingNegotiator blogPostListingNegotiator) {
         this.blogPostService = blogPostService;
+        this.blogPostExportService = blogPostExportService;
+        this.blogPostBatchService = blogPostBatchService;
+        this.blogPostSearchService = blogPostSearchService;
+        this.blogPostExportLimiter = blogPostExportLimiter;
+        this.blogPostListingNegotiator = blogPostListingNegotiator;
     }
 
     /**
@@ -35,28 +61,127 @@ public final class BlogPostController {
     }
 
     /**
-     * Retrieves all blog posts.
+     * Creates a batch of blog posts.
+     *
+     * @param blogPosts the blog post data transfer objects
+     * @return a response entity containing the outcome of every blog post, in request order
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BlogPostBatchResult> createBlogPosts(@RequestBody List<BlogPostDto> blogPosts) {
+        BlogPostBatchResult result = blogPostBatchService.createBlogPosts(blogPosts);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves a page of blog posts, ordered by identifier.
+     * <p>
+     * The response carries an entity tag of the listing in the negotiated encoding; a request
+     * whose If-None-Match header still matches it is answered with 304 Not Modified without
+     * loading the posts. Both responses vary by the Accept header.
+     * </p>
      *
-     * @return a response entity containing a set of blog post data transfer objects
+     * @param after   the opaque cursor returned with the previous page, omitted for the first page
+     * @param limit   the maximum number of posts to return
+     * @param request the current request, used to negotiate the encoding and evaluate its conditional headers
+     * @return a response entity containing a page of blog post summaries and the next cursor,
+     * or without a body if the client's copy is up to date
+     * @throws HttpMediaTypeNotAcceptableException if the request accepts none of the encodings
      */
     @GetMapping
-    public ResponseEntity<Set<BlogPostDto>> getAllBlogPosts() {
-        Set<BlogPostDto> blogPosts = blogPostService.getAllBlogPosts();
+    public ResponseEntity<BlogPostPage> getAllBlogPosts(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + BlogPostService.DEFAULT_PAGE_SIZE) int limit,
+            NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        String eTag = blogPostListingNegotiator.eTag(blogPostService.getBlogPostsETag(), request);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        BlogPostPage blogPosts = blogPostService.getBlogPosts(after, limit);
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(blogPosts);
+    }
+
+    /**
+     * Retrieves a page of the blog posts of the current user, ordered by identifier.
+     *
+     * @param after the opaque cursor returned with the previous page, omitted for the first page
+     * @param limit the maximum number of posts to return
+     * @return a response entity containing a page of blog post summaries and the next cursor
+     */
+    @GetMapping("/mine")
+    public ResponseEntity<BlogPostPage> getMyBlogPosts(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + BlogPostService.DEFAULT_PAGE_SIZE) int limit) {
+        BlogPostPage blogPosts = blogPostService.getMyBlogPosts(after, limit);
         return new ResponseEntity<>(blogPosts, HttpStatus.OK);
     }
 
+    /**
+     * Searches the title and text of blog posts, best matches first.
+     *
+     * @param q     the words to search for
+     * @param after the opaque cursor returned with the previous page, omitted for the first page
+     * @param limit the maximum number of posts to return
+     * @return a response entity containing a page of matching blog post summaries and the next cursor
+     */
+    @GetMapping("/search")
+    public ResponseEntity<BlogPostPage> searchBlogPosts(
+            @RequestParam String q,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + BlogPostService.DEFAULT_PAGE_SIZE) int limit) {
+        BlogPostPage blogPosts = blogPostSearchService.searchBlogPosts(q, after, limit);
+        return new ResponseEntity<>(blogPosts, HttpStatus.OK);
+    }
+
+    /**
+     * Exports all blog posts as newline-delimited JSON.
+     * <p>
+     * The response is streamed while the posts are read from the database, so the first
+     * bytes are sent immediately and memory usage does not depend on the number of posts. Only a
+     * few exports run at once; any further one is rejected with 503 Service Unavailable.
+     * </p>
+     *
+     * @return a response entity streaming one JSON document per blog post
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBlogPosts() {
+        StreamingResponseBody body = blogPostExportLimiter.limit(blogPostExportService::exportBlogPosts);
+        return new ResponseEntity<>(body, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves a single blog post with its full text and tags.
+     * <p>
+     * The response carries the version of the post as its entity tag, which can be sent back in
+     * the If-Match header of an update.
+     * </p>
+     *
+     * @param postId the ID of the blog post
+     * @return a response entity containing the blog post details
+     */
+    @GetMapping("/{postId}")
+    public ResponseEntity<BlogPostDetails> getBlogPost(@PathVariable int postId) {
+        BlogPostDetails blogPost = blogPostService.getBlogPost(postId);
+        return ResponseEntity.ok().eTag(BlogPostETag.encode(blogPost.version())).body(blogPost);
+    }
+
     /**
      * Updates an existing blog post.
+     * <p>
+     * If the request carries an If-Match header, the post is only updated if it is still at the
+     * version of that entity tag; otherwise the response is 412 Precondition Failed.
+     * </p>
      *
      * @param postId the ID of the blog post to update
      * @param updatedPost the updated blog post data transfer object
+     * @param ifMatch the entity tag of the version the update is based on, if any
      * @return the response entity with status indicating the result of the operation
      */
     @PutMapping("/{postId}")
     public ResponseEntity<String> updateBlogPost(
             @PathVariable int postId,
-            @RequestBody BlogPostDto updatedPost) {
-        return blogPostService.updateBlogPost(updatedPost, postId);
+            @RequestBody BlogPostDto updatedPost,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return blogPostService.updateBlogPost(updatedPost, postId, BlogPostETag.decode(ifMatch));
     }
 
     /**
@@ -87,17 +212,63 @@ public final class BlogPostController {
         return blogPostService.removeTagFromPost(postId, tagName);
     }
 
+    /**
+     * Adds and removes tags across many blog posts in one request.
+     *
+     * @param changes the tags to add to and remove from every blog post
+     * @return a response entity containing the number of created and deleted tag assignments
+     */
+    @PatchMapping("/tags")
+    public ResponseEntity<BlogPostTagChangeResult> changeTags(@RequestBody List<BlogPostTagChange> changes) {
+        BlogPostTagChangeResult result = blogPostService.changeTags(changes);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves a page of blog posts matching a boolean tag expression, ordered by identifier.
+     *
+     * @param all   the tags a post must all carry
+     * @param any   the tags a post must carry at least one of
+     * @param none  the tags a post must not carry
+     * @param after the opaque cursor returned with the previous page, omitted for the first page
+     * @param limit the maximum number of posts to return
+     * @return a response entity containing a page of blog post summaries and the next cursor
+     */
+    @GetMapping("/tags")
+    public ResponseEntity<BlogPostPage> getBlogPostsByTags(
+            @RequestParam(required = false) Set<String> all,
+            @RequestParam(required = false) Set<String> any,
+            @RequestParam(required = false) Set<String> none,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + BlogPostService.DEFAULT_PAGE_SIZE) int limit) {
+        BlogPostPage blogPosts = blogPostService.getBlogPostsByTags(all, any, none, after, limit);
+        return new ResponseEntity<>(blogPosts, HttpStatus.OK);
+    }
+
     /**
      * Retrieves blog posts by tag.
+     * <p>
+     * The response carries an entity tag of the posts in the negotiated encoding; a request
+     * whose If-None-Match header still matches it is answered with 304 Not Modified without
+     * loading the posts. Both responses vary by the Accept header.
+     * </p>
      *
      * @param tagName the name of the tag
-     * @return a response entity containing a set of blog post data transfer objects
+     * @param request the current request, used to negotiate the encoding and evaluate its conditional headers
+     * @return a response entity containing a set of blog post data transfer objects,
+     * or without a body if the client's copy is up to date
+     * @throws HttpMediaTypeNotAcceptableException if the request accepts none of the encodings
      */
     @GetMapping("/tags/{tagName}")
     public ResponseEntity<Set<BlogPostDto>> getBlogPostsByTag(
-            @PathVariable String tagName) {
+            @PathVariable String tagName,
+            NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        String eTag = blogPostListingNegotiator.eTag(blogPostService.getBlogPostsByTagETag(tagName), request);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
+        }
         Set<BlogPostDto> blogPosts = blogPostService.getBlogPostsByTag(tagName);
-        return new ResponseEntity<>(blogPosts, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(blogPosts);
     }
 
     /**
@@ -0,0 +1,98 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.scalefocus.mk.blog.api.shared.exceptions.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque cursors used by paginated listings.
+ * <p>
+ * A listing cursor wraps the identifier of the last post a client has seen, and a search cursor
+ * wraps the number of results already returned. Both are encoded as URL-safe Base64 so that
+ * clients treat them as opaque tokens rather than building their own offsets, and each kind is
+ * rejected where the other is expected.
+ * </p>
+ */
+final class BlogPostCursor {
+
+    private static final String ID_PREFIX = "id:";
+    private static final String OFFSET_PREFIX = "offset:";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private BlogPostCursor() {
+    }
+
+    /**
+     * Encodes the given post identifier as an opaque cursor.
+     *
+     * @param id the identifier of the last post on a page
+     * @return the encoded cursor
+     */
+    static String encode(int id) {
+        return encode(ID_PREFIX, id);
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode(int)}.
+     * <p>
+     * A null or blank cursor denotes the start of the listing and decodes to 0.
+     * </p>
+     *
+     * @param cursor the cursor to decode
+     * @return the identifier the cursor points past
+     * @throws InvalidRequestException if the cursor is malformed
+     */
+    static int decode(String cursor) {
+        return decode(ID_PREFIX, cursor);
+    }
+
+    /**
+     * Encodes the given number of returned search results as an opaque cursor.
+     *
+     * @param offset the number of results returned up to and including a page
+     * @return the encoded cursor
+     */
+    static String encodeOffset(int offset) {
+        return encode(OFFSET_PREFIX, offset);
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encodeOffset(int)}.
+     * <p>
+     * A null or blank cursor denotes the first page of results and decodes to 0.
+     * </p>
+     *
+     * @param cursor the cursor to decode
+     * @return the number of results the cursor skips
+     * @throws InvalidRequestException if the cursor is malformed
+     */
+    static int decodeOffset(String cursor) {
+        return decode(OFFSET_PREFIX, cursor);
+    }
+
+    private static String encode(String prefix, int value) {
+        return ENCODER.encodeToString((prefix + value).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static int decode(String prefix, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        String value;
+        try {
+            value = new String(DECODER.decode(cursor), StandardCharsets.US_ASCII);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor, e);
+        }
+        if (!value.startsWith(prefix)) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor);
+        }
+        try {
+            return Integer.parseInt(value.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
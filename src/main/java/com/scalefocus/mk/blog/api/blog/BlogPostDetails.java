@@ -0,0 +1,21 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import java.util.Set;
+
+/**
+ * Full read model of a single blog post.
+ * <p>
+ * This record carries the untruncated text of a blog post together with its identifier,
+ * owner, the names of its tags and its version.
+ * </p>
+ *
+ * @param id            the identifier of the blog post
+ * @param title         the title of the blog post
+ * @param text          the text content of the blog post
+ * @param ownerUsername the username of the owner of the blog post
+ * @param tags          the names of the tags of the blog post
+ * @param version       the optimistic locking version of the blog post
+ */
+public record BlogPostDetails(Integer id, String title, String text, String ownerUsername, Set<String> tags,
+                              long version) {
+}
@@ -0,0 +1,54 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.scalefocus.mk.blog.api.shared.exceptions.InvalidRequestException;
+
+/**
+ * Encodes and decodes the entity tags of single blog posts.
+ * <p>
+ * The entity tag of a post is its optimistic locking version in quotes. Clients send it back
+ * in the If-Match header of an update, which then only applies if the post is still at that
+ * version.
+ * </p>
+ */
+final class BlogPostETag {
+
+    private static final String ANY = "*";
+
+    private BlogPostETag() {
+    }
+
+    /**
+     * Encodes the given version as a strong entity tag.
+     *
+     * @param version the version of a blog post
+     * @return the entity tag
+     */
+    static String encode(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Decodes the version from the value of an If-Match header.
+     * <p>
+     * A missing header or {@code *} matches any version and decodes to null.
+     * </p>
+     *
+     * @param ifMatch the value of the If-Match header
+     * @return the expected version, or null if any version matches
+     * @throws InvalidRequestException if the header is not an entity tag produced by {@link #encode(long)}
+     */
+    static Long decode(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.strip())) {
+            return null;
+        }
+        String value = ifMatch.strip();
+        if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) {
+            throw new InvalidRequestException("Invalid entity tag: " + ifMatch);
+        }
+        try {
+            return Long.parseLong(value.substring(1, value.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Invalid entity tag: " + ifMatch, e);
+        }
+    }
+}
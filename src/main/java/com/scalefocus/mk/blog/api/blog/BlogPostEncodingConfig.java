@@ -0,0 +1,41 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Configuration of the binary encodings of the responses.
+ * <p>
+ * Besides JSON, clients sending a matching Accept header receive CBOR ("application/cbor") or
+ * Smile ("application/x-jackson-smile"), written by Jackson with the settings of the JSON
+ * object mapper, and blog post listings as Protobuf ("application/x-protobuf") through the
+ * {@link BlogPostProtobufHttpMessageConverter}. The binary converters are added after the
+ * default ones, so that JSON stays the encoding of requests accepting any media type.
+ * </p>
+ */
+@Configuration
+class BlogPostEncodingConfig implements WebMvcConfigurer {
+
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    BlogPostEncodingConfig(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.factory(new SmileFactory()).build()));
+        converters.add(new BlogPostProtobufHttpMessageConverter());
+    }
+}
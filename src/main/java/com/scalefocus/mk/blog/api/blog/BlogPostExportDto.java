@@ -0,0 +1,16 @@
+package com.scalefocus.mk.blog.api.blog;
+
+/**
+ * Data Transfer Object (DTO) for exported blog posts.
+ * <p>
+ * This record represents a single line of the newline-delimited JSON export and carries
+ * the full, untruncated content of a blog post together with its identifier and owner.
+ * </p>
+ *
+ * @param id            the identifier of the blog post
+ * @param title         the title of the blog post
+ * @param text          the text content of the blog post
+ * @param ownerUsername the username of the owner of the blog post
+ */
+public record BlogPostExportDto(Integer id, String title, String text, String ownerUsername) {
+}
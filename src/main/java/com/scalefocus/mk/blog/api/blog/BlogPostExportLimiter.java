@@ -0,0 +1,115 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.scalefocus.mk.blog.api.shared.exceptions.EntityPersistenceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limit on the number of exports running at once.
+ * <p>
+ * An export keeps a database cursor, and so a pooled connection, open for as long as its
+ * client reads the response, which can be up to the asynchronous request timeout. This limiter
+ * admits a fixed number of exports and rejects any further one immediately with 503 Service
+ * Unavailable, before its response is started, so that slow exports cannot take over the pool.
+ * The slot of an export is released once its response body has been written or has failed.
+ * </p>
+ * <p>
+ * The body runs asynchronously and may never run at all, when the asynchronous request times
+ * out before the body is scheduled or the task executor rejects it. The slot is therefore also
+ * released by a {@link CallableProcessingInterceptor} of the current request, once the request
+ * times out, fails or completes, whichever happens first; every slot is released exactly once.
+ * </p>
+ */
+@Component
+final class BlogPostExportLimiter {
+
+    static final String ACTIVE_METRIC = "blog.export.active";
+
+    static final String REJECTED_METRIC = "blog.export.rejected";
+
+    private final Semaphore slots;
+
+    private final Counter rejectedCounter;
+
+    BlogPostExportLimiter(@Value("${blog.export.max-concurrent:2}") int maxConcurrent, MeterRegistry meterRegistry) {
+        this.slots = new Semaphore(maxConcurrent);
+        this.rejectedCounter = meterRegistry.counter(REJECTED_METRIC);
+        Gauge.builder(ACTIVE_METRIC, slots, semaphore -> maxConcurrent - semaphore.availablePermits())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a slot for an export and returns its body, releasing the slot once it has run or
+     * once the asynchronous processing of the current request has ended.
+     *
+     * @param body the body streaming the export
+     * @return the body holding the slot while it runs
+     * @throws EntityPersistenceException if the maximum number of exports is already running
+     */
+    StreamingResponseBody limit(StreamingResponseBody body) {
+        if (!slots.tryAcquire()) {
+            rejectedCounter.increment();
+            throw new EntityPersistenceException("Too many exports are running, try again later.",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        Slot slot = new Slot();
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes instanceof ServletRequestAttributes servletRequestAttributes) {
+            WebAsyncUtils.getAsyncManager(servletRequestAttributes.getRequest())
+                    .registerCallableInterceptor(BlogPostExportLimiter.class.getName(), slot);
+        }
+        return outputStream -> {
+            try {
+                body.writeTo(outputStream);
+            } finally {
+                slot.release();
+            }
+        };
+    }
+
+    /**
+     * Slot of one export, released by whichever of its body and its request ends first.
+     */
+    private final class Slot implements CallableProcessingInterceptor {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                slots.release();
+            }
+        }
+
+        @Override
+        public <T> Object handleTimeout(NativeWebRequest request, Callable<T> task) {
+            release();
+            return RESULT_NONE;
+        }
+
+        @Override
+        public <T> Object handleError(NativeWebRequest request, Callable<T> task, Throwable t) {
+            release();
+            return RESULT_NONE;
+        }
+
+        @Override
+        public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+            release();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.scalefocus.mk.blog.api.shared.persistence.LongRunningRead;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service for exporting the full blog post corpus.
+ * <p>
+ * This service streams blog posts straight from a forward-only database cursor and writes each
+ * one as a line of newline-delimited JSON. Loaded entities are periodically detached from the
+ * persistence context and the output is flushed at the same interval, so memory usage stays
+ * constant regardless of the number of exported posts.
+ * </p>
+ */
+@Service
+public class BlogPostExportService {
+
+    /**
+     * Number of exported posts after which the persistence context is cleared and the output flushed.
+     */
+    static final int DETACH_INTERVAL = 500;
+
+    @PersistenceContext
+    EntityManager em;
+
+    private final BlogPostRepository blogPostRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectWriter writer;
+
+    BlogPostExportService(BlogPostRepository blogPostRepository, ObjectMapper objectMapper) {
+        this.blogPostRepository = blogPostRepository;
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writerFor(BlogPostExportDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes all blog posts to the given output stream as newline-delimited JSON.
+     * <p>
+     * The posts are read inside a read-only transaction, which keeps the database cursor open
+     * while the rows are consumed. As this holds a connection for as long as the client reads,
+     * the export is a long-running read for the database bulkhead. The output stream is not
+     * closed by this method.
+     * </p>
+     *
+     * @param outputStream the stream to write the export to
+     * @throws IOException if writing to the output stream fails
+     */
+    @LongRunningRead
+    @Transactional(readOnly = true)
+    public void exportBlogPosts(OutputStream outputStream) throws IOException {
+        try (Stream<BlogPost> posts = blogPostRepository.streamAllOrderedById();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            int exported = 0;
+            for (Iterator<BlogPost> iterator = posts.iterator(); iterator.hasNext(); ) {
+                BlogPost post = iterator.next();
+                writer.writeValue(generator, toExportDto(post));
+                generator.writeRaw('\n');
+                if (++exported % DETACH_INTERVAL == 0) {
+                    em.clear();
+                    generator.flush();
+                }
+            }
+        }
+    }
+
+    private static BlogPostExportDto toExportDto(BlogPost post) {
+        return new BlogPostExportDto(post.getId(), post.getTitle(), post.getText(), post.getOwnerUsername());
+    }
+}
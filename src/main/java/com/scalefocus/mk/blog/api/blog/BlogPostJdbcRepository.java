@@ -0,0 +1,81 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Repository for single-statement writes to blog posts.
+ * <p>
+ * This repository updates the "blog_post" table directly through JDBC, so that an update is
+ * one conditional statement instead of a load followed by a merge. Ownership and the expected
+ * version are part of the condition, and the unique title constraint is left to the database.
+ * </p>
+ */
+@Repository
+class BlogPostJdbcRepository {
+
+    private static final String UPDATE_SQL =
+            "UPDATE blog_post SET title = :title, text = :text, version = version + 1 " +
+                    "WHERE id = :id AND owner_username = :ownerUsername";
+
+    private static final String VERSION_CONDITION = " AND version = :version";
+
+    private static final String FIND_VERSION_SQL =
+            "SELECT owner_username, version FROM blog_post WHERE id = :id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    BlogPostJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Updates the title and text of a blog post owned by the given user.
+     *
+     * @param id            the identifier of the blog post
+     * @param ownerUsername the username the post must be owned by
+     * @param version       the version the post must be at, or null to update any version
+     * @param title         the new title
+     * @param text          the new text
+     * @return 1 if the post was updated, 0 if no post matched the condition
+     * @throws org.springframework.dao.DuplicateKeyException if another post has the title
+     */
+    int update(int id, String ownerUsername, Long version, String title, String text) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", id);
+        params.put("ownerUsername", ownerUsername);
+        params.put("title", title);
+        params.put("text", text);
+        if (version == null) {
+            return jdbcTemplate.update(UPDATE_SQL, params);
+        }
+        params.put("version", version);
+        return jdbcTemplate.update(UPDATE_SQL + VERSION_CONDITION, params);
+    }
+
+    /**
+     * Retrieves the owner and current version of a blog post.
+     *
+     * @param id the identifier of the blog post
+     * @return the owner and version of the post, or empty if the post does not exist
+     */
+    Optional<PostVersion> findVersion(int id) {
+        List<PostVersion> versions = jdbcTemplate.query(FIND_VERSION_SQL, Map.of("id", id),
+                (rs, rowNum) -> new PostVersion(rs.getString("owner_username"), rs.getLong("version")));
+        return versions.stream().findFirst();
+    }
+
+    /**
+     * Owner and version of a blog post.
+     *
+     * @param ownerUsername the username of the owner of the blog post
+     * @param version       the current version of the blog post
+     */
+    record PostVersion(String ownerUsername, long version) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Negotiator of the encoding of blog post listings, ahead of their conditional requests.
+ * <p>
+ * Listings are answered with 304 Not Modified before they are loaded, and thus before the
+ * message converters negotiate their encoding. Their JSON, CBOR, Smile and Protobuf encodings
+ * are different representations, which must not share a strong entity tag, or a cache holding
+ * one of them would serve it to a client accepting another. This class selects the encoding the
+ * converters will write, the same way they do, so that it can be folded into the entity tag.
+ * </p>
+ */
+@Component
+final class BlogPostListingNegotiator {
+
+    static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    /**
+     * The encodings of the listings, in the order of the converters writing them.
+     */
+    static final List<MediaType> MEDIA_TYPES = List.of(
+            MediaType.APPLICATION_JSON,
+            new MediaType("application", "*+json"),
+            MediaType.APPLICATION_CBOR,
+            SMILE,
+            BlogPostProtobufHttpMessageConverter.PROTOBUF);
+
+    private final ContentNegotiationManager contentNegotiationManager;
+
+    BlogPostListingNegotiator(ContentNegotiationManager contentNegotiationManager) {
+        this.contentNegotiationManager = contentNegotiationManager;
+    }
+
+    /**
+     * Returns the entity tag of the encoding of a listing accepted by the request.
+     *
+     * @param eTag    the strong entity tag of the version of the listing
+     * @param request the current request, whose Accept header selects the encoding
+     * @return the strong entity tag of the version of the listing in the selected encoding
+     * @throws HttpMediaTypeNotAcceptableException if the request accepts none of the encodings
+     */
+    String eTag(String eTag, NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        return eTag.substring(0, eTag.length() - 1) + "-" + negotiate(request).getSubtype() + "\"";
+    }
+
+    /**
+     * Selects the encoding of a listing accepted by the request.
+     * <p>
+     * The most specific media type compatible with both the request and an encoding wins, and
+     * a request accepting any media type receives JSON.
+     * </p>
+     *
+     * @param request the current request
+     * @return the selected media type
+     * @throws HttpMediaTypeNotAcceptableException if the request accepts none of the encodings
+     */
+    MediaType negotiate(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        List<MediaType> compatible = new ArrayList<>();
+        for (MediaType acceptable : contentNegotiationManager.resolveMediaTypes(request)) {
+            for (MediaType producible : MEDIA_TYPES) {
+                if (acceptable.isCompatibleWith(producible)) {
+                    compatible.add(mostSpecific(acceptable, producible));
+                }
+            }
+        }
+        MimeTypeUtils.sortBySpecificity(compatible);
+        for (MediaType mediaType : compatible) {
+            if (mediaType.isConcrete()) {
+                return mediaType.removeQualityValue();
+            }
+        }
+        throw new HttpMediaTypeNotAcceptableException(MEDIA_TYPES);
+    }
+
+    private static MediaType mostSpecific(MediaType acceptable, MediaType producible) {
+        MediaType producibleWithQuality = producible.copyQualityValue(acceptable);
+        return acceptable.isLessSpecific(producibleWithQuality) ? producibleWithQuality : acceptable;
+    }
+}
@@ -2,12 +2,13 @@ package com.scalefocus.mk.blog.api.blog;
 
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 /**
- * Mapper interface for converting between BlogPostDto and BlogPost entities.
+ * Mapper interface for converting between BlogPost DTOs and BlogPost entities.
  * <p>
  * This interface uses MapStruct to generate the implementation for mapping
- * BlogPostDto to BlogPost entities.
+ * BlogPostDto to BlogPost entities and BlogPost entities to BlogPostDetails.
  * </p>
  */
 @Mapper(componentModel = "spring")
@@ -15,9 +16,36 @@ public interface BlogPostMapper {
 
     /**
      * Converts a BlogPostDto to a BlogPost entity.
+     * <p>
+     * Only the title and text come from the client. The identifier and version are generated by
+     * the database, the owner is the current user and tags are assigned through their own
+     * endpoints.
+     * </p>
      *
      * @param dto the BlogPostDto to convert
      * @return the corresponding BlogPost entity
      */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "ownerUsername", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "tags", ignore = true)
     BlogPost blogPostDtoToEntity(BlogPostDto dto);
+
+    /**
+     * Converts a BlogPost entity with its tags to a BlogPostDetails.
+     *
+     * @param blogPost the BlogPost entity to convert
+     * @return the corresponding BlogPostDetails
+     */
+    BlogPostDetails blogPostToDetails(BlogPost blogPost);
+
+    /**
+     * Converts a BlogTag entity to its name.
+     *
+     * @param tag the BlogTag entity to convert
+     * @return the name of the tag
+     */
+    default String blogTagToName(BlogTag tag) {
+        return tag.getName();
+    }
 }
\ No newline at end of file
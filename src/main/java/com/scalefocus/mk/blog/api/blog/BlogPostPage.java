@@ -0,0 +1,18 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import java.util.List;
+
+/**
+ * A single page of a paginated blog post listing or search.
+ * <p>
+ * Listed posts are ordered by ascending identifier and found posts by descending relevance.
+ * When more posts are available, {@code nextCursor} holds an opaque value that must be passed
+ * back as the {@code after} parameter to fetch the following page; on the last page it is
+ * {@code null}.
+ * </p>
+ *
+ * @param posts      the posts on this page
+ * @param nextCursor the cursor of the next page, or null if this is the last page
+ */
+public record BlogPostPage(List<BlogPostSummary> posts, String nextCursor) {
+}
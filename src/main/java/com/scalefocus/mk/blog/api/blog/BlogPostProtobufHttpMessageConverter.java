@@ -0,0 +1,132 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * HTTP message converter writing blog post listings as Protobuf.
+ * <p>
+ * This converter writes pages of blog post summaries as "BlogPostPage" messages and
+ * collections of blog posts as "BlogPostList" messages of the "proto/blog_post.proto" schema,
+ * named in the X-Protobuf-Schema and X-Protobuf-Message headers like Spring does. The messages
+ * are encoded field by field with a CodedOutputStream, so no classes are generated from the
+ * schema; fields holding their default value are omitted, as in proto3. Requests are never
+ * read as Protobuf.
+ * </p>
+ */
+final class BlogPostProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    static final String SCHEMA = "proto/blog_post.proto";
+
+    BlogPostProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    /**
+     * Writes a page of blog post summaries or a collection of blog posts as Protobuf.
+     *
+     * @param value  the page or collection to write
+     * @param output the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    static void write(Object value, OutputStream output) throws IOException {
+        CodedOutputStream out = CodedOutputStream.newInstance(output);
+        if (value instanceof BlogPostPage page) {
+            writePage(out, page);
+        } else {
+            for (Object post : (Collection<?>) value) {
+                BlogPostDto dto = (BlogPostDto) post;
+                writeMessageHeader(out, 1, stringSize(1, dto.title()) + stringSize(2, dto.text()));
+                writeString(out, 1, dto.title());
+                writeString(out, 2, dto.text());
+            }
+        }
+        out.flush();
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return BlogPostPage.class.isAssignableFrom(clazz) || Collection.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (BlogPostPage.class.isAssignableFrom(clazz)) {
+            return canWrite(mediaType);
+        }
+        return type != null && Collection.class.isAssignableFrom(clazz)
+                && ResolvableType.forType(type).asCollection().resolveGeneric(0) == BlogPostDto.class
+                && canWrite(mediaType);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getHeaders().set("X-Protobuf-Schema", SCHEMA);
+        outputMessage.getHeaders().set("X-Protobuf-Message",
+                value instanceof BlogPostPage ? "blog.v1.BlogPostPage" : "blog.v1.BlogPostList");
+        write(value, outputMessage.getBody());
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf requests are not supported.", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf requests are not supported.", inputMessage);
+    }
+
+    private static void writePage(CodedOutputStream out, BlogPostPage page) throws IOException {
+        for (BlogPostSummary post : page.posts()) {
+            int id = post.id() == null ? 0 : post.id();
+            int size = (id == 0 ? 0 : CodedOutputStream.computeInt32Size(1, id))
+                    + stringSize(2, post.title()) + stringSize(3, post.text());
+            writeMessageHeader(out, 1, size);
+            if (id != 0) {
+                out.writeInt32(1, id);
+            }
+            writeString(out, 2, post.title());
+            writeString(out, 3, post.text());
+        }
+        writeString(out, 2, page.nextCursor());
+    }
+
+    private static void writeMessageHeader(CodedOutputStream out, int field, int size) throws IOException {
+        out.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        out.writeUInt32NoTag(size);
+    }
+
+    private static void writeString(CodedOutputStream out, int field, String value) throws IOException {
+        if (value != null && !value.isEmpty()) {
+            out.writeString(field, value);
+        }
+    }
+
+    private static int stringSize(int field, String value) {
+        return value == null || value.isEmpty() ? 0 : CodedOutputStream.computeStringSize(field, value);
+    }
+}
@@ -1,21 +1,29 @@
 package com.scalefocus.mk.blog.api.blog;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for BlogPost entities.
  * <p>
  * This interface extends JpaRepository to provide CRUD operations for BlogPost entities.
- * It also defines custom queries for checking the existence of a blog post by title,
- * retrieving all blog posts as DTOs, finding a blog post by ID with its tags, and finding
- * all blog posts by a specific tag.
+ * It also defines custom queries for checking the existence of a blog post by title or of a batch of titles,
+ * retrieving a keyset-paginated page of all blog post summaries or of those of one owner, or the summaries of given posts,
+ * finding a blog post by ID with its tags, finding all blog posts by a specific tag, and streaming
+ * the whole table for export.
  * </p>
  */
 @Repository
@@ -31,19 +39,70 @@ public interface BlogPostRepository extends JpaRepository<BlogPost, Integer> {
     boolean existsByTitle(String title);
 
     /**
-     * Retrieves all blog posts as BlogPostDto objects with truncated text.
+     * Retrieves which of the given titles are already used by blog posts.
      *
-     * @return a set of BlogPostDto objects
+     * @param titles the titles to check
+     * @return the titles that already exist
+     */
+    @Query("SELECT bp.title FROM BlogPost bp WHERE bp.title IN ?1")
+    Set<String> findExistingTitles(Collection<String> titles);
+
+    /**
+     * Retrieves the blog posts following the given identifier as summaries with truncated text.
+     * <p>
+     * Results are ordered by identifier so that the primary key index is used as a range scan,
+     * which keeps the cost of every page constant regardless of how deep the client has paged.
+     * </p>
+     *
+     * @param afterId the identifier after which the page starts (exclusive)
+     * @param limit   the maximum number of posts to return
+     * @return a list of BlogPostSummary objects ordered by identifier
+     */
+    @Query("SELECT NEW com.scalefocus.mk.blog.api.blog.BlogPostSummary(bp.id, bp.title, substring(bp.text, 1, 50)) " +
+            "FROM BlogPost bp WHERE bp.id > ?1 ORDER BY bp.id")
+    List<BlogPostSummary> findPageAfter(int afterId, Limit limit);
+
+    /**
+     * Retrieves the blog posts of an owner following the given identifier as summaries with truncated text.
+     * <p>
+     * The composite index on owner username and identifier turns this query into a range scan of
+     * the posts of the owner, already in identifier order.
+     * </p>
+     *
+     * @param ownerUsername the username of the owner of the posts
+     * @param afterId       the identifier after which the page starts (exclusive)
+     * @param limit         the maximum number of posts to return
+     * @return a list of BlogPostSummary objects ordered by identifier
      */
-    @Query("SELECT NEW com.scalefocus.mk.blog.api.blog.BlogPostDto(bp.title, substring(bp.text, 1, 50)) FROM BlogPost bp")
-    Set<BlogPostDto> getAllBlogPostsAsDto();
+    @Query("SELECT NEW com.scalefocus.mk.blog.api.blog.BlogPostSummary(bp.id, bp.title, substring(bp.text, 1, 50)) " +
+            "FROM BlogPost bp WHERE bp.ownerUsername = ?1 AND bp.id > ?2 ORDER BY bp.id")
+    List<BlogPostSummary> findPageByOwnerAfter(String ownerUsername, int afterId, Limit limit);
+
+    /**
+     * Retrieves the given blog posts as summaries with truncated text.
+     *
+     * @param postIds the identifiers of the blog posts
+     * @return a list of BlogPostSummary objects ordered by identifier
+     */
+    @Query("SELECT NEW com.scalefocus.mk.blog.api.blog.BlogPostSummary(bp.id, bp.title, substring(bp.text, 1, 50)) " +
+            "FROM BlogPost bp WHERE bp.id IN ?1 ORDER BY bp.id")
+    List<BlogPostSummary> findSummariesByIds(Collection<Integer> postIds);
 
     /**
      * Finds a blog post by its ID, including its tags.
+     * <p>
+     * The result is kept in the query cache, which Hibernate invalidates whenever the posts or
+     * their tags change through the persistence context. Changes made through JDBC must evict
+     * it explicitly.
+     * </p>
      *
      * @param postId the ID of the blog post to find
      * @return an Optional containing the found BlogPost, or empty if not found
      */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = BlogPost.QUERY_CACHE_REGION)
+    })
     @EntityGraph(attributePaths = "tags")
     @Query("SELECT bp FROM BlogPost bp WHERE bp.id = ?1")
     Optional<BlogPost> findByIdWithTags(int postId);
@@ -57,4 +116,25 @@ public interface BlogPostRepository extends JpaRepository<BlogPost, Integer> {
     @Query("SELECT NEW com.scalefocus.mk.blog.api.blog.BlogPostDto(bp.title, SUBSTRING(bp.text, 1, 50)) " +
             "FROM BlogPost bp JOIN bp.tags t WHERE t.name = ?1")
     Set<BlogPostDto> findAllByTag(String tagName);
+
+    /**
+     * Streams all blog posts ordered by identifier.
+     * <p>
+     * A fetch size of {@link Integer#MIN_VALUE} makes the MySQL driver stream rows one by one
+     * from a forward-only cursor instead of buffering the whole result set in memory. The
+     * entities are loaded read-only, so Hibernate keeps no snapshots for dirty checking, and
+     * bypass the second-level cache, so an export does not evict the frequently read posts.
+     * The stream must be consumed and closed inside a transaction.
+     * </p>
+     *
+     * @return a stream of all BlogPost entities
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "false"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT bp FROM BlogPost bp ORDER BY bp.id")
+    Stream<BlogPost> streamAllOrderedById();
 }
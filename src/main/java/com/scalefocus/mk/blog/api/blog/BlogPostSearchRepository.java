@@ -0,0 +1,45 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository for full-text search over blog posts.
+ * <p>
+ * Searches run against the FULLTEXT index on the title and text of the "blog_post" table in
+ * natural language mode, so the query is matched word by word and never interpreted as search
+ * operators. Results are ordered by relevance, and posts of equal relevance by identifier, so
+ * that the order is total and consecutive pages neither repeat nor skip posts.
+ * </p>
+ */
+@Repository
+class BlogPostSearchRepository {
+
+    private static final String SEARCH_SQL =
+            "SELECT id, title, SUBSTRING(text, 1, 50) AS text FROM blog_post " +
+                    "WHERE MATCH (title, text) AGAINST (:query IN NATURAL LANGUAGE MODE) " +
+                    "ORDER BY MATCH (title, text) AGAINST (:query IN NATURAL LANGUAGE MODE) DESC, id " +
+                    "LIMIT :limit OFFSET :offset";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    BlogPostSearchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Retrieves the blog posts matching the given query as summaries with truncated text.
+     *
+     * @param query  the words to search for
+     * @param offset the number of best matches to skip
+     * @param limit  the maximum number of posts to return
+     * @return a list of BlogPostSummary objects ordered by descending relevance, then by identifier
+     */
+    List<BlogPostSummary> search(String query, int offset, int limit) {
+        return jdbcTemplate.query(SEARCH_SQL, Map.of("query", query, "offset", offset, "limit", limit),
+                (rs, rowNum) -> new BlogPostSummary(rs.getInt("id"), rs.getString("title"), rs.getString("text")));
+    }
+}
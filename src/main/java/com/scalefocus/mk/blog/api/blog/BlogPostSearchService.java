@@ -0,0 +1,65 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.scalefocus.mk.blog.api.shared.exceptions.InvalidRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Service for searching blog posts.
+ * <p>
+ * This service runs queries against the full-text index on the title and text of blog posts and
+ * returns the best matches first. Results are paged by offset, since relevance gives no stable
+ * key to continue from, and paging stops after a configured maximum number of results so that
+ * the cost of the deepest page stays bounded.
+ * </p>
+ */
+@Service
+public class BlogPostSearchService {
+
+    static final int MAX_QUERY_LENGTH = 200;
+
+    private final BlogPostSearchRepository searchRepository;
+
+    private final int maxResults;
+
+    BlogPostSearchService(BlogPostSearchRepository searchRepository,
+                          @Value("${blog.search.max-results:1000}") int maxResults) {
+        this.searchRepository = searchRepository;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Searches the title and text of blog posts, best matches first.
+     * <p>
+     * As with the listing, one extra row is requested to find out whether another page exists
+     * without issuing a count query.
+     * </p>
+     *
+     * @param query the words to search for
+     * @param after the cursor returned with the previous page, or null to start from the best match
+     * @param limit the requested page size, clamped between 1 and {@value BlogPostService#MAX_PAGE_SIZE}
+     * @return a page of blog post summaries ordered by descending relevance
+     * @throws InvalidRequestException if the query is blank or too long, or the cursor is malformed
+     */
+    BlogPostPage searchBlogPosts(String query, String after, int limit) {
+        if (query == null || query.isBlank() || query.length() > MAX_QUERY_LENGTH) {
+            throw new InvalidRequestException(
+                    "Search query must be between 1 and " + MAX_QUERY_LENGTH + " characters.");
+        }
+        int offset = BlogPostCursor.decodeOffset(after);
+        if (offset < 0) {
+            throw new InvalidRequestException("Invalid cursor: " + after);
+        }
+        int pageSize = Math.min(Math.min(Math.max(limit, 1), BlogPostService.MAX_PAGE_SIZE), maxResults - offset);
+        if (pageSize <= 0) {
+            return new BlogPostPage(List.of(), null);
+        }
+        List<BlogPostSummary> posts = searchRepository.search(query.strip(), offset, pageSize + 1);
+        if (posts.size() <= pageSize) {
+            return new BlogPostPage(posts, null);
+        }
+        return new BlogPostPage(posts.subList(0, pageSize), BlogPostCursor.encodeOffset(offset + pageSize));
+    }
+}
@@ -2,14 +2,24 @@ package com.scalefocus.mk.blog.api.blog;
 
 import com.scalefocus.mk.blog.api.shared.auth.AuthService;
 import com.scalefocus.mk.blog.api.shared.exceptions.EntityPersistenceException;
+import com.scalefocus.mk.blog.api.shared.exceptions.InvalidRequestException;
 import com.scalefocus.mk.blog.api.shared.persistence.PersistenceService;
+import com.scalefocus.mk.blog.api.shared.persistence.ReadYourWrites;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.annotation.Observed;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -19,28 +29,71 @@ import java.util.Set;
  * This service provides methods for creating, retrieving, updating, and deleting blog posts.
  * It also allows for adding and removing tags from blog posts. The service interacts with
  * the repository layer to perform database operations and ensures proper authorization and
- * validation through the AuthService.
+ * validation through the AuthService. Listings are served through the BlogPostCache, which
+ * every successful write invalidates for the affected posts and tags, and boolean tag queries
+ * through the BlogTagIndex, which every tag change updates. Every write is recorded in
+ * ReadYourWrites, so that the next reads of its author are not served by a lagging replica.
+ * </p>
+ * <p>
+ * Every method is observed as "blog.service", and every load of a single post as
+ * "blog.posts.load", tagged with the relation it is loaded with.
  * </p>
  */
 @Service
+@Observed(name = BlogPostService.SERVICE_OBSERVATION)
 public class BlogPostService {
 
+    static final String SERVICE_OBSERVATION = "blog.service";
+
+    static final String LOAD_OBSERVATION = "blog.posts.load";
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    static final int DEFAULT_TOP_TAGS = 10;
+
+    static final int MAX_TOP_TAGS = 100;
+
+    static final int MAX_TAG_NAME_LENGTH = 255;
+
     private final BlogPostRepository blogPostRepository;
 
     private final PersistenceService persistenceService;
 
-    private final BlogTagRepository tagRepository;
-
     private final BlogPostMapper blogPostMapper;
 
     private final AuthService authService;
 
-    BlogPostService(BlogPostRepository blogPostRepository, PersistenceService persistenceService, BlogTagRepository tagRepository, BlogPostMapper blogPostMapper, AuthService authService) {
+    private final BlogPostCache blogPostCache;
+
+    private final BlogPostTagJdbcRepository postTagRepository;
+
+    private final BlogTagResolver tagResolver;
+
+    private final BlogTagIndex tagIndex;
+
+    private final BlogPostJdbcRepository blogPostJdbcRepository;
+
+    private final BlogTagWriteBehind tagWriteBehind;
+
+    private final ObservationRegistry observationRegistry;
+
+    private final ReadYourWrites readYourWrites;
+
+    BlogPostService(BlogPostRepository blogPostRepository, PersistenceService persistenceService, BlogPostMapper blogPostMapper, AuthService authService, BlogPostCache blogPostCache, BlogPostTagJdbcRepository postTagRepository, BlogTagResolver tagResolver, BlogTagIndex tagIndex, BlogPostJdbcRepository blogPostJdbcRepository, BlogTagWriteBehind tagWriteBehind, ObservationRegistry observationRegistry, ReadYourWrites readYourWrites) {
         this.blogPostRepository = blogPostRepository;
         this.persistenceService = persistenceService;
-        this.tagRepository = tagRepository;
         this.blogPostMapper = blogPostMapper;
         this.authService = authService;
+        this.blogPostCache = blogPostCache;
+        this.postTagRepository = postTagRepository;
+        this.tagResolver = tagResolver;
+        this.tagIndex = tagIndex;
+        this.blogPostJdbcRepository = blogPostJdbcRepository;
+        this.tagWriteBehind = tagWriteBehind;
+        this.observationRegistry = observationRegistry;
+        this.readYourWrites = readYourWrites;
     }
 
     /**
@@ -61,127 +114,441 @@ public class BlogPostService {
 
         BlogPost post = blogPostMapper.blogPostDtoToEntity(blogPostDto);
         post.setOwnerUsername(authService.getCurrentUsername());
-        return persistenceService.persist(post) ? new ResponseEntity<>(HttpStatus.CREATED) : new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        persistenceService.persist(post);
+        readYourWrites.recordWrite();
+        blogPostCache.evictPost(post.getId());
+        return new ResponseEntity<>(HttpStatus.CREATED);
     }
 
     /**
-     * Retrieves all blog posts.
+     * Retrieves a page of blog posts using keyset pagination.
      * <p>
-     * This method fetches all blog posts from the database and returns them as a set of
-     * BlogPostDto objects.
+     * This method decodes the cursor into the last seen post identifier and fetches the posts
+     * that follow it in identifier order. One extra row is requested to find out whether another
+     * page exists without issuing a count query; if it does, the returned page carries the cursor
+     * of its last post. Pages are served from the BlogPostCache when present.
      * </p>
      *
-     * @return a set of blog post data transfer objects
+     * @param after the cursor returned with the previous page, or null to start from the beginning
+     * @param limit the requested page size, clamped between 1 and {@value #MAX_PAGE_SIZE}
+     * @return a page of blog post summaries
+     * @throws InvalidRequestException if the cursor is malformed
      */
-    Set<BlogPostDto> getAllBlogPosts() {
-        return blogPostRepository.getAllBlogPostsAsDto();
+    BlogPostPage getBlogPosts(String after, int limit) {
+        int afterId = BlogPostCursor.decode(after);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        return blogPostCache.getPage(afterId, pageSize, () -> loadBlogPosts(afterId, pageSize));
     }
 
     /**
-     * Updates an existing blog post.
+     * Retrieves a page of the blog posts of the current user using keyset pagination.
      * <p>
-     * This method first fetches the blog post from the database. It then checks if the title
-     * of the existing blog post is different from the updated title. If they are different,
-     * it verifies that the new title does not already exist in the database. If the new title
-     * is unique, the title is updated. Finally, the updated blog post entity is persisted
-     * in the database.
+     * Pages work like those of {@link #getBlogPosts(String, int)}, but are read through the
+     * index on owner and identifier and are not cached, as every user has their own.
+     * </p>
+     *
+     * @param after the cursor returned with the previous page, or null to start from the beginning
+     * @param limit the requested page size, clamped between 1 and {@value #MAX_PAGE_SIZE}
+     * @return a page of blog post summaries
+     * @throws InvalidRequestException if the cursor is malformed
+     */
+    BlogPostPage getMyBlogPosts(String after, int limit) {
+        int afterId = BlogPostCursor.decode(after);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        List<BlogPostSummary> posts = blogPostRepository.findPageByOwnerAfter(
+                authService.getCurrentUsername(), afterId, Limit.of(pageSize + 1));
+        return toPage(posts, pageSize);
+    }
+
+    /**
+     * Returns the entity tag of the current version of the blog post listing.
+     * <p>
+     * The version is kept in memory and changes with every write to a post, so a client
+     * holding a matching entity tag can be answered without querying the database.
+     * </p>
+     *
+     * @return a strong entity tag
+     */
+    String getBlogPostsETag() {
+        return blogPostCache.postsETag();
+    }
+
+    private BlogPostPage loadBlogPosts(int afterId, int pageSize) {
+        return toPage(blogPostRepository.findPageAfter(afterId, Limit.of(pageSize + 1)), pageSize);
+    }
+
+    private static BlogPostPage toPage(List<BlogPostSummary> posts, int pageSize) {
+        if (posts.size() <= pageSize) {
+            return new BlogPostPage(posts, null);
+        }
+        List<BlogPostSummary> page = posts.subList(0, pageSize);
+        return new BlogPostPage(page, BlogPostCursor.encode(page.get(pageSize - 1).id()));
+    }
+
+    /**
+     * Retrieves a single blog post with its full text and tags.
+     * <p>
+     * The post is looked up through the query and entity caches of the second-level cache, so
+     * frequently read posts are served from memory.
+     * </p>
+     *
+     * @param postId the id of the blog post
+     * @return the blog post details
+     * @throws EntityNotFoundException if the blog post does not exist
+     */
+    BlogPostDetails getBlogPost(int postId) {
+        return blogPostMapper.blogPostToDetails(getBlogPostEntity(postId, EntityRelation.TAGS));
+    }
+
+    /**
+     * Updates the title and text of an existing blog post.
+     * <p>
+     * This method updates the post with a single conditional statement that only matches a post
+     * owned by the current user and, if an expected version is given, still at that version. The
+     * unique constraint on the title is checked by the database. Only if no post matched does it
+     * read the post again, to tell a missing post from one owned by another user or one that was
+     * modified concurrently. Finally, the cached post and the cached listings containing it are
+     * evicted.
      * </p>
      *
      * @param updatedPost the updated blog post data transfer object
      * @param id the id of the blog post to update
+     * @param expectedVersion the version the update is based on, or null to update any version
      * @return the response entity with status indicating the result of the operation
+     * @throws InvalidRequestException if the title is blank
+     * @throws EntityNotFoundException if the blog post does not exist
+     * @throws UnsupportedOperationException if the blog post belongs to another user
+     * @throws EntityPersistenceException if the blog post is no longer at the expected version
      */
-    ResponseEntity<String> updateBlogPost(BlogPostDto updatedPost, int id) {
-        BlogPost blogPostEntity = getBlogPostFromDatabase(id, EntityRelation.EMPTY);
-        if (!blogPostEntity.getTitle().equals(updatedPost.title())) {
-            if (blogPostRepository.existsByTitle(updatedPost.title())) {
-                return new ResponseEntity<>("Title already exists.", HttpStatus.CONFLICT);
-            } else {
-                blogPostEntity.setTitle(updatedPost.title());
-            }
+    ResponseEntity<String> updateBlogPost(BlogPostDto updatedPost, int id, Long expectedVersion) {
+        if (updatedPost.title() == null || updatedPost.title().isBlank()) {
+            throw new InvalidRequestException("Title must not be blank.");
+        }
+        int updated;
+        try {
+            updated = blogPostJdbcRepository.update(id, authService.getCurrentUsername(), expectedVersion,
+                    updatedPost.title(), updatedPost.text());
+        } catch (DuplicateKeyException e) {
+            return new ResponseEntity<>("Title already exists.", HttpStatus.CONFLICT);
         }
-        return persistenceService.update(blogPostEntity) ?
-                new ResponseEntity<>(HttpStatus.OK) :
-                new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        if (updated == 0) {
+            throw updateFailure(id);
+        }
+        readYourWrites.recordWrite();
+        persistenceService.evictEntities(BlogPost.class, Set.of(id));
+        blogPostCache.evictPost(id);
+        tagIndex.findTags(id).forEach(tag -> blogPostCache.evictTag(tag.id()));
+        return new ResponseEntity<>(HttpStatus.OK);
     }
 
+    private RuntimeException updateFailure(int id) {
+        BlogPostJdbcRepository.PostVersion current = blogPostJdbcRepository.findVersion(id)
+                .orElseThrow(() -> new EntityNotFoundException("Could not find entity with id: " + id));
+        authService.validateCurrentUsername(current.ownerUsername());
+        return new EntityPersistenceException("Blog post " + id + " was modified concurrently, current version is "
+                + current.version() + ".", HttpStatus.PRECONDITION_FAILED);
+    }
 
     /**
      * Adds a tag to a blog post.
      * <p>
-     * This method fetches the blog post and the tag from the database. If the tag does not exist,
-     * it creates and persists a new tag. The tag is then added to the blog post, and the updated
-     * blog post is persisted in the database.
+     * This method checks that the blog post exists and belongs to the current user, resolves
+     * the tag through the BlogTagResolver, which creates the tag if it does not exist, and
+     * inserts the assignment directly. Adding a tag the post already has is a no-op. In
+     * write-behind mode, the addition is queued in the BlogTagWriteBehind instead and the
+     * response is 202 Accepted.
      * </p>
      *
      * @param postId the id of the blog post
      * @param tagName the name of the tag to add
      * @return the response entity with status indicating the result of the operation
+     * @throws InvalidRequestException if the tag name is blank or longer than {@value #MAX_TAG_NAME_LENGTH} characters
      */
-    ResponseEntity<Void> addTagToPost(int postId, String tagName) {
-        BlogPost post = getBlogPostFromDatabase(postId, EntityRelation.TAGS);
-        BlogTag blogTag = getBlogTagEntity(tagName);
-        post.getTags().add(blogTag);
-        return persistenceService.update(post) ?
-                new ResponseEntity<>(HttpStatus.CREATED)
-                : new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+    @Transactional
+    public ResponseEntity<Void> addTagToPost(int postId, String tagName) {
+        validateTagName(tagName);
+        validateOwnership(Set.of(postId));
+        readYourWrites.recordWrite();
+        if (tagWriteBehind.isEnabled()) {
+            tagWriteBehind.add(postId, tagName);
+            return new ResponseEntity<>(HttpStatus.ACCEPTED);
+        }
+        BlogTagRef tag = tagResolver.resolve(tagName);
+        postTagRepository.insertPostTags(List.of(new BlogPostTagJdbcRepository.PostTag(postId, tag.id())));
+        persistenceService.evictCollections(BlogPost.class, "tags", Set.of(postId));
+        tagIndex.add(tag, postId);
+        blogPostCache.evictTag(tag.id());
+        return new ResponseEntity<>(HttpStatus.CREATED);
     }
 
     /**
      * Removes a tag from a blog post.
      * <p>
-     * This method fetches the blog post and the tag from the database. The tag is then removed
-     * from the blog post, and the updated blog post is persisted in the database.
+     * This method checks that the blog post exists and belongs to the current user and deletes
+     * the assignment directly. Removing a tag that does not exist or that the post does not have
+     * is a no-op; unlike adding, it never creates the tag. In write-behind mode, the removal is
+     * queued in the BlogTagWriteBehind instead and the response is 202 Accepted.
      * </p>
      *
      * @param postId the id of the blog post
      * @param tagName the name of the tag to remove
      * @return the response entity with status indicating the result of the operation
      */
-    ResponseEntity<Void> removeTagFromPost(int postId, String tagName) {
-        BlogPost post = getBlogPostFromDatabase(postId, EntityRelation.TAGS);
-        BlogTag blogTag = getBlogTagEntity(tagName);
-        post.getTags().remove(blogTag);
-        return persistenceService.update(post) ?
-                new ResponseEntity<>(HttpStatus.OK)
-                : new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+    @Transactional
+    public ResponseEntity<Void> removeTagFromPost(int postId, String tagName) {
+        validateOwnership(Set.of(postId));
+        readYourWrites.recordWrite();
+        if (tagWriteBehind.isEnabled()) {
+            tagWriteBehind.remove(postId, tagName);
+            return new ResponseEntity<>(HttpStatus.ACCEPTED);
+        }
+        tagResolver.find(tagName).ifPresent(tag -> {
+            postTagRepository.deletePostTags(List.of(new BlogPostTagJdbcRepository.PostTag(postId, tag.id())));
+            persistenceService.evictCollections(BlogPost.class, "tags", Set.of(postId));
+            tagIndex.remove(tag, postId);
+            blogPostCache.evictTag(tag.id());
+        });
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    /**
+     * Adds and removes tags across many blog posts at once.
+     * <p>
+     * This method works on the tag assignments directly instead of loading and merging every post:
+     * it checks that all the posts exist and belong to the current user with one query, resolves
+     * the tag identifiers through the BlogTagResolver, which creates the missing tags, and then
+     * inserts and deletes the assignments with one statement each. Assignments that already exist
+     * or do not exist are ignored. The cached posts of every changed tag are evicted.
+     * </p>
+     *
+     * @param changes the tags to add to and remove from every post
+     * @return the number of created and deleted tag assignments
+     * @throws EntityNotFoundException       if one of the posts does not exist
+     * @throws UnsupportedOperationException if one of the posts belongs to another user
+     * @throws InvalidRequestException       if a tag is both added to and removed from a post, or a tag name is
+     *                                       blank or too long
+     */
+    @Transactional
+    public BlogPostTagChangeResult changeTags(List<BlogPostTagChange> changes) {
+        validateTagChanges(changes);
+        Set<Integer> postIds = new HashSet<>();
+        changes.forEach(change -> postIds.add(change.postId()));
+        validateOwnership(postIds);
+        return applyTagChanges(changes);
+    }
+
+    /**
+     * Adds and removes tags across many blog posts without checking who owns them.
+     * <p>
+     * This is the write part of {@link #changeTags(List)}, also used by the BlogTagWriteBehind to
+     * write the changes it queued after checking their ownership. A tag must not be both added
+     * to and removed from the same post, under the same name or under names the database takes
+     * for the same tag.
+     * </p>
+     *
+     * @param changes the tags to add to and remove from every post
+     * @return the number of created and deleted tag assignments
+     * @throws InvalidRequestException if a tag is both added to and removed from a post
+     */
+    @Transactional
+    public BlogPostTagChangeResult applyTagChanges(List<BlogPostTagChange> changes) {
+        Set<Integer> postIds = new HashSet<>();
+        Set<String> addedTags = new HashSet<>();
+        Set<String> removedTags = new HashSet<>();
+        for (BlogPostTagChange change : changes) {
+            postIds.add(change.postId());
+            addedTags.addAll(change.add());
+            removedTags.addAll(change.remove());
+        }
+
+        Map<String, BlogTagRef> added = tagResolver.resolveAll(addedTags);
+        Map<String, BlogTagRef> removed = tagResolver.findAll(removedTags);
+
+        List<BlogPostTagJdbcRepository.PostTag> additions = new ArrayList<>();
+        List<BlogPostTagJdbcRepository.PostTag> removals = new ArrayList<>();
+        for (BlogPostTagChange change : changes) {
+            Set<Integer> addedIds = new HashSet<>();
+            change.add().forEach(tagName -> {
+                int tagId = added.get(tagName).id();
+                addedIds.add(tagId);
+                additions.add(new BlogPostTagJdbcRepository.PostTag(change.postId(), tagId));
+            });
+            change.remove().stream()
+                    .filter(removed::containsKey)
+                    .forEach(tagName -> {
+                        int tagId = removed.get(tagName).id();
+                        if (addedIds.contains(tagId)) {
+                            throw new InvalidRequestException("Tag " + tagName + " is both added to and removed from post "
+                                    + change.postId() + ".");
+                        }
+                        removals.add(new BlogPostTagJdbcRepository.PostTag(change.postId(), tagId));
+                    });
+        }
+        int addedCount = postTagRepository.insertPostTags(additions);
+        int removedCount = postTagRepository.deletePostTags(removals);
+        readYourWrites.recordWrite();
+        persistenceService.evictCollections(BlogPost.class, "tags", postIds);
+        for (BlogPostTagChange change : changes) {
+            change.add().forEach(tagName -> tagIndex.add(added.get(tagName), change.postId()));
+            change.remove().stream()
+                    .filter(removed::containsKey)
+                    .forEach(tagName -> tagIndex.remove(removed.get(tagName), change.postId()));
+        }
+        added.values().forEach(tag -> blogPostCache.evictTag(tag.id()));
+        removed.values().forEach(tag -> blogPostCache.evictTag(tag.id()));
+        return new BlogPostTagChangeResult(addedCount, removedCount);
     }
 
     /**
      * Removes a blog post.
      * <p>
-     * This method fetches the blog post from the database and then removes it.
+     * This method fetches the blog post from the database, checks that it belongs to the current
+     * user and removes it and its tag assignments in one unit of work of the PersistenceService,
+     * flushed and committed once. The cached listings that contained it are evicted once the
+     * unit of work has committed.
      * </p>
      *
      * @param postId the id of the blog post to remove
      * @return the response entity with status indicating the result of the operation
+     * @throws EntityNotFoundException       if the blog post does not exist
+     * @throws UnsupportedOperationException if the blog post belongs to another user
+     * @throws EntityPersistenceException    if the blog post could not be removed
      */
-    @Transactional
     public ResponseEntity<Void> removeBlogPost(int postId) {
-        BlogPost post = getBlogPostFromDatabase(postId, EntityRelation.EMPTY);
-        return persistenceService.remove(post) ?
-                new ResponseEntity<>(HttpStatus.OK)
-                : new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        BlogPost post = persistenceService.inUnitOfWork(() -> {
+            BlogPost removed = getBlogPostFromDatabase(postId, EntityRelation.TAGS);
+            persistenceService.remove(removed);
+            removed.getTags().forEach(tag -> tagIndex.remove(new BlogTagRef(tag.getId(), tag.getName()), postId));
+            return removed;
+        });
+        readYourWrites.recordWrite();
+        evictCachedPost(post);
+        return new ResponseEntity<>(HttpStatus.OK);
     }
 
     /**
      * Retrieves blog posts by tag.
      * <p>
-     * This method fetches all blog posts associated with the specified tag from the database
-     * and returns them as a set of BlogPostDto objects.
+     * This method fetches all blog posts associated with the specified tag, from the
+     * BlogPostCache when present and from the database otherwise, and returns them as a
+     * set of BlogPostDto objects. The tag is resolved through the BlogTagResolver, so every
+     * spelling of a tag shares one cache entry, and a tag that does not exist has no posts.
      * </p>
      *
      * @param tagName the name of the tag
      * @return a set of blog post data transfer objects
      */
     Set<BlogPostDto> getBlogPostsByTag(String tagName) {
-        return blogPostRepository.findAllByTag(tagName);
+        return tagResolver.find(tagName)
+                .map(tag -> blogPostCache.getPostsByTag(tag.id(), () -> blogPostRepository.findAllByTag(tag.name())))
+                .orElse(Set.of());
+    }
+
+    /**
+     * Returns the entity tag of the current version of the blog posts of the given tag.
+     * <p>
+     * The version is kept in memory and changes with every change to the tag's posts, so a
+     * client holding a matching entity tag can be answered without loading them. The tag is
+     * resolved through the BlogTagResolver, whose cache holds the existing tags, so that every
+     * spelling of a tag shares one version.
+     * </p>
+     *
+     * @param tagName the name of the tag
+     * @return a strong entity tag
+     */
+    String getBlogPostsByTagETag(String tagName) {
+        return tagResolver.find(tagName)
+                .map(tag -> blogPostCache.tagETag(tag.id()))
+                .orElseGet(blogPostCache::missingTagETag);
+    }
+
+    /**
+     * Retrieves a page of the blog posts matching a boolean tag expression.
+     * <p>
+     * This method evaluates the expression against the BlogTagIndex and only loads the posts of
+     * the requested page from the database. Matching posts are ordered by identifier and paged
+     * with the same keyset cursors as the listing.
+     * </p>
+     *
+     * @param all   the tags a post must all carry, or null
+     * @param any   the tags a post must carry at least one of, or null
+     * @param none  the tags a post must not carry, or null
+     * @param after the cursor returned with the previous page, or null to start from the beginning
+     * @param limit the requested page size, clamped between 1 and {@value #MAX_PAGE_SIZE}
+     * @return a page of blog post summaries
+     * @throws InvalidRequestException if neither {@code all} nor {@code any} is given, or the cursor is malformed
+     */
+    BlogPostPage getBlogPostsByTags(Set<String> all, Set<String> any, Set<String> none, String after, int limit) {
+        int afterId = BlogPostCursor.decode(after);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        List<Integer> postIds = tagIndex.findPostIds(orEmpty(all), orEmpty(any), orEmpty(none), afterId, pageSize + 1);
+        if (postIds.isEmpty()) {
+            return new BlogPostPage(List.of(), null);
+        }
+        List<Integer> pageIds = postIds.subList(0, Math.min(pageSize, postIds.size()));
+        List<BlogPostSummary> posts = blogPostRepository.findSummariesByIds(pageIds);
+        String nextCursor = postIds.size() > pageSize ? BlogPostCursor.encode(pageIds.get(pageSize - 1)) : null;
+        return new BlogPostPage(posts, nextCursor);
+    }
+
+    /**
+     * Retrieves the tags carried by the most blog posts.
+     * <p>
+     * The counts are maintained by the BlogTagIndex as tags change, so this method does not
+     * query the database and its cost does not depend on the number of posts.
+     * </p>
+     *
+     * @param n the requested number of tags, clamped between 1 and {@value #MAX_TOP_TAGS}
+     * @return the names and number of posts of the most used tags, most used first
+     */
+    List<BlogTagCount> getTopTags(int n) {
+        return tagIndex.findTopTags(Math.min(Math.max(n, 1), MAX_TOP_TAGS));
+    }
+
+    private static Set<String> orEmpty(Set<String> tagNames) {
+        return tagNames != null ? tagNames : Set.of();
+    }
+
+    private static void validateTagChanges(List<BlogPostTagChange> changes) {
+        for (BlogPostTagChange change : changes) {
+            for (String tagName : change.add()) {
+                validateTagName(tagName);
+                if (change.remove().contains(tagName)) {
+                    throw new InvalidRequestException(
+                            "Tag " + tagName + " is both added to and removed from post " + change.postId() + ".");
+                }
+            }
+        }
+    }
+
+    private static void validateTagName(String tagName) {
+        if (tagName == null || tagName.isBlank()) {
+            throw new InvalidRequestException("Tag names must not be blank.");
+        }
+        if (tagName.length() > MAX_TAG_NAME_LENGTH) {
+            throw new InvalidRequestException("Tag names must be at most " + MAX_TAG_NAME_LENGTH + " characters long.");
+        }
+    }
+
+    private void validateOwnership(Set<Integer> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        Map<Integer, String> owners = postTagRepository.findOwners(postIds);
+        for (Integer postId : postIds) {
+            if (!owners.containsKey(postId)) {
+                throw new EntityNotFoundException("Could not find entity with id: " + postId);
+            }
+            authService.validateCurrentUsername(owners.get(postId));
+        }
     }
 
     private BlogPost getBlogPostEntity(int postId, EntityRelation relation) {
-        Optional<BlogPost> blogPostOpt = relation.equals(EntityRelation.TAGS)
-                ? blogPostRepository.findByIdWithTags(postId)
-                : blogPostRepository.findById(postId);
+        Optional<BlogPost> blogPostOpt = Observation.createNotStarted(LOAD_OBSERVATION, observationRegistry)
+                .lowCardinalityKeyValue("relation", relation.name())
+                .observe(() -> relation.equals(EntityRelation.TAGS)
+                        ? blogPostRepository.findByIdWithTags(postId)
+                        : blogPostRepository.findById(postId));
         if (blogPostOpt.isPresent()) {
             return blogPostOpt.get();
         } else {
@@ -189,22 +556,9 @@ public class BlogPostService {
         }
     }
 
-    private BlogTag getBlogTagEntity(String tagName) {
-        Optional<BlogTag> tagOpt = tagRepository.findByName(tagName);
-        return tagOpt.orElseGet(() -> persistBlogTag(tagName));
-    }
-
-    private BlogTag persistBlogTag(String tagName) {
-        BlogTag tag = new BlogTag();
-        tag.setBlogPosts(new HashSet<>());
-        tag.setName(tagName);
-        boolean persisted = persistenceService.persist(tag);
-        if (!persisted) {
-            throw new EntityPersistenceException(
-                    "Could not persist blog tag: " + tagName,
-                    HttpStatus.INTERNAL_SERVER_ERROR);
-        }
-        return tag;
+    private void evictCachedPost(BlogPost post) {
+        blogPostCache.evictPost(post.getId());
+        post.getTags().forEach(tag -> blogPostCache.evictTag(tag.getId()));
     }
 
     private BlogPost getBlogPostFromDatabase(int postId, EntityRelation relation) {
@@ -0,0 +1,16 @@
+package com.scalefocus.mk.blog.api.blog;
+
+/**
+ * Lightweight read model of a blog post used by paginated listings.
+ * <p>
+ * Unlike {@link BlogPostDto}, this record carries the post identifier, which clients need
+ * in order to address individual posts and which the listing uses as its keyset position.
+ * The text is truncated by the query that produces it.
+ * </p>
+ *
+ * @param id    the identifier of the blog post
+ * @param title the title of the blog post
+ * @param text  the truncated text content of the blog post
+ */
+public record BlogPostSummary(Integer id, String title, String text) {
+}
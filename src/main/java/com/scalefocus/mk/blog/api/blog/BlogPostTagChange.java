@@ -0,0 +1,18 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import java.util.Set;
+
+/**
+ * Tags to add to and remove from a blog post.
+ *
+ * @param postId the identifier of the blog post
+ * @param add    the names of the tags to add, may be null
+ * @param remove the names of the tags to remove, may be null
+ */
+public record BlogPostTagChange(int postId, Set<String> add, Set<String> remove) {
+
+    public BlogPostTagChange {
+        add = add == null ? Set.of() : add;
+        remove = remove == null ? Set.of() : remove;
+    }
+}
@@ -0,0 +1,10 @@
+package com.scalefocus.mk.blog.api.blog;
+
+/**
+ * Result of a bulk change of the tags of blog posts.
+ *
+ * @param added   the number of tag assignments that were created
+ * @param removed the number of tag assignments that were deleted
+ */
+public record BlogPostTagChangeResult(int added, int removed) {
+}
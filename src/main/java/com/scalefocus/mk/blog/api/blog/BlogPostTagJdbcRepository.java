@@ -0,0 +1,205 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Repository for set-based operations on tags and their assignments to blog posts.
+ * <p>
+ * This repository works on the "tag" and "blog_post_tags" tables directly through JDBC, so that
+ * tags can be assigned to and removed from many posts with a few statements, without loading the
+ * posts or their tag collections into the persistence context. Every statement handles its rows
+ * in chunks of {@value #CHUNK_SIZE} to bound the size of the generated SQL.
+ * </p>
+ */
+@Repository
+class BlogPostTagJdbcRepository {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private static final String FIND_OWNERS_SQL =
+            "SELECT id, owner_username FROM blog_post WHERE id IN (:ids)";
+
+    private static final String INSERT_TAGS_SQL =
+            "INSERT IGNORE INTO tag (name) VALUES :names";
+
+    private static final String FIND_TAG_SQL =
+            "SELECT id, name FROM tag WHERE name = ?";
+
+    private static final String FIND_TAGS_SQL =
+            "SELECT id, name FROM tag ORDER BY id LIMIT ?";
+
+    private static final String FIND_POST_TAGS_SQL =
+            "SELECT bpt.blog_post_id, t.id, t.name FROM blog_post_tags bpt JOIN tag t ON t.id = bpt.tag_id";
+
+    private static final String FIND_TAGS_BY_NAME_SQL =
+            "SELECT id, name FROM tag WHERE name IN (:names)";
+
+    private static final String INSERT_POST_TAGS_SQL =
+            "INSERT IGNORE INTO blog_post_tags (blog_post_id, tag_id) VALUES :rows";
+
+    private static final String DELETE_POST_TAGS_SQL =
+            "DELETE FROM blog_post_tags WHERE (blog_post_id, tag_id) IN (:rows)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    BlogPostTagJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Retrieves the owners of the given blog posts.
+     *
+     * @param postIds the identifiers of the blog posts
+     * @return the owner username of every existing post, by post identifier
+     */
+    Map<Integer, String> findOwners(Collection<Integer> postIds) {
+        Map<Integer, String> owners = new HashMap<>();
+        for (List<Integer> chunk : chunks(List.copyOf(postIds))) {
+            jdbcTemplate.query(FIND_OWNERS_SQL, Map.of("ids", chunk),
+                    (RowCallbackHandler) rs -> owners.put(rs.getInt("id"), rs.getString("owner_username")));
+        }
+        return owners;
+    }
+
+    /**
+     * Inserts the tags that do not exist yet, in one statement per chunk.
+     *
+     * @param tagNames the names of the tags
+     */
+    void insertMissingTags(Collection<String> tagNames) {
+        for (List<String> chunk : chunks(List.copyOf(tagNames))) {
+            List<Object[]> names = chunk.stream().map(name -> new Object[]{name}).toList();
+            jdbcTemplate.update(INSERT_TAGS_SQL, Map.of("names", names));
+        }
+    }
+
+    /**
+     * Retrieves the tag equal to the given name under the collation of the tag names.
+     *
+     * @param tagName the name of the tag
+     * @return the stored tag, or empty if no such tag exists
+     */
+    Optional<BlogTagRef> findTag(String tagName) {
+        return jdbcTemplate.getJdbcTemplate().query(FIND_TAG_SQL,
+                (rs, rowNum) -> new BlogTagRef(rs.getInt("id"), rs.getString("name")), tagName).stream().findFirst();
+    }
+
+    /**
+     * Passes the first tags, in identifier order, to the given consumer.
+     *
+     * @param limit    the maximum number of tags
+     * @param consumer the consumer of the stored tags
+     */
+    void forEachTag(long limit, Consumer<BlogTagRef> consumer) {
+        jdbcTemplate.getJdbcTemplate().query(FIND_TAGS_SQL,
+                (RowCallbackHandler) rs -> consumer.accept(new BlogTagRef(rs.getInt("id"), rs.getString("name"))), limit);
+    }
+
+    /**
+     * Passes every tag assignment to the given consumer.
+     * <p>
+     * A fetch size of {@link Integer#MIN_VALUE} makes the MySQL driver stream the rows one by one
+     * instead of buffering the whole table in memory.
+     * </p>
+     *
+     * @param consumer the consumer of the post identifiers and stored tags
+     */
+    void forEachPostTag(BiConsumer<Integer, BlogTagRef> consumer) {
+        jdbcTemplate.getJdbcTemplate().query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_POST_TAGS_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(rs.getInt("blog_post_id"),
+                new BlogTagRef(rs.getInt("id"), rs.getString("name"))));
+    }
+
+    /**
+     * Retrieves the given tags.
+     * <p>
+     * The stored tags are read with one query per chunk and matched to the requested names
+     * case-insensitively. A requested name equal to a stored one only under the collation of the
+     * tag names, such as one differing in accents, or not stored at all, is then looked up by
+     * that name alone, so that it is matched by the database and never by a rule of its own.
+     * </p>
+     *
+     * @param tagNames the names of the tags
+     * @return the stored tag of every existing tag, by requested name
+     */
+    Map<String, BlogTagRef> findTags(Collection<String> tagNames) {
+        Map<String, BlogTagRef> stored = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (List<String> chunk : chunks(List.copyOf(tagNames))) {
+            jdbcTemplate.query(FIND_TAGS_BY_NAME_SQL, Map.of("names", chunk), (RowCallbackHandler) rs ->
+                    stored.put(rs.getString("name"), new BlogTagRef(rs.getInt("id"), rs.getString("name"))));
+        }
+        Map<String, BlogTagRef> tags = new HashMap<>();
+        for (String tagName : tagNames) {
+            BlogTagRef tag = stored.get(tagName);
+            if (tag != null) {
+                tags.put(tagName, tag);
+            } else {
+                findTag(tagName).ifPresent(found -> tags.put(tagName, found));
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * Assigns tags to blog posts, ignoring the assignments that already exist.
+     *
+     * @param postTags the assignments to insert
+     * @return the number of inserted assignments
+     */
+    int insertPostTags(Collection<PostTag> postTags) {
+        return updatePostTags(INSERT_POST_TAGS_SQL, postTags);
+    }
+
+    /**
+     * Removes tags from blog posts.
+     *
+     * @param postTags the assignments to delete
+     * @return the number of deleted assignments
+     */
+    int deletePostTags(Collection<PostTag> postTags) {
+        return updatePostTags(DELETE_POST_TAGS_SQL, postTags);
+    }
+
+    private int updatePostTags(String sql, Collection<PostTag> postTags) {
+        int updated = 0;
+        for (List<PostTag> chunk : chunks(List.copyOf(postTags))) {
+            List<Object[]> rows = chunk.stream().map(postTag -> new Object[]{postTag.postId(), postTag.tagId()}).toList();
+            updated += jdbcTemplate.update(sql, Map.of("rows", rows));
+        }
+        return updated;
+    }
+
+    private static <T> List<List<T>> chunks(List<T> values) {
+        int chunkCount = (values.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        return IntStream.range(0, chunkCount)
+                .mapToObj(chunk -> values.subList(chunk * CHUNK_SIZE, Math.min((chunk + 1) * CHUNK_SIZE, values.size())))
+                .toList();
+    }
+
+    /**
+     * Assignment of a tag to a blog post.
+     *
+     * @param postId the identifier of the blog post
+     * @param tagId  the identifier of the tag
+     */
+    record PostTag(int postId, int tagId) {
+    }
+}
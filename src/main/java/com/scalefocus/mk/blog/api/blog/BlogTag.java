@@ -3,6 +3,8 @@ package com.scalefocus.mk.blog.api.blog;
 import com.scalefocus.mk.blog.api.shared.persistence.EntityMarker;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -11,11 +13,13 @@ import java.util.Set;
  * Entity representing a tag for blog posts.
  * <p>
  * This class maps to the "tag" table in the database and contains details about
- * a tag, including its name and associated blog posts.
+ * a tag, including its name and associated blog posts. Tags are kept in the second-level cache.
  * </p>
  */
 @Entity
 @Table(name = "tag")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "blog-tag")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,40 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for blog tags.
+ * <p>
+ * This controller provides endpoints for reading tag statistics, such as the most used tags.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/v1/tags")
+public final class BlogTagController {
+
+    private final BlogPostService blogPostService;
+
+    public BlogTagController(BlogPostService blogPostService) {
+        this.blogPostService = blogPostService;
+    }
+
+    /**
+     * Retrieves the tags carried by the most blog posts.
+     *
+     * @param n the maximum number of tags to return
+     * @return a response entity containing the most used tags and their number of posts, most used first
+     */
+    @GetMapping("/top")
+    public ResponseEntity<List<BlogTagCount>> getTopTags(
+            @RequestParam(defaultValue = "" + BlogPostService.DEFAULT_TOP_TAGS) int n) {
+        List<BlogTagCount> tags = blogPostService.getTopTags(n);
+        return new ResponseEntity<>(tags, HttpStatus.OK);
+    }
+}
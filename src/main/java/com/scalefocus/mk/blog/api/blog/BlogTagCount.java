@@ -0,0 +1,10 @@
+package com.scalefocus.mk.blog.api.blog;
+
+/**
+ * Number of blog posts carrying a tag.
+ *
+ * @param name  the name of the tag
+ * @param posts the number of blog posts carrying the tag
+ */
+public record BlogTagCount(String name, int posts) {
+}
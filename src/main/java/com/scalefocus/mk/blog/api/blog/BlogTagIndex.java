@@ -0,0 +1,350 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.scalefocus.mk.blog.api.shared.exceptions.InvalidRequestException;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index from tags to the blog posts that carry them.
+ * <p>
+ * Every tag maps to a compressed bitmap of post identifiers, so boolean tag expressions are
+ * answered with bitmap intersections, unions and differences, without a database round-trip.
+ * Alongside the bitmaps, the tags are kept ordered by their number of posts, so the most used
+ * tags are read in time proportional to the number requested.
+ * </p>
+ * <p>
+ * The index is built from the "blog_post_tags" table at startup and kept up to date by the
+ * BlogPostService, whose changes are applied once their transaction commits. It is rebuilt
+ * periodically to reconcile it with changes made by other application instances. Changes made
+ * while the index is being built are recorded and replayed onto the new index before it
+ * replaces the old one.
+ * </p>
+ * <p>
+ * Reads share a read lock and changes take the write lock. Tags are keyed by their identifier
+ * and named as stored: the names of a query are resolved through the {@link BlogTagResolver},
+ * so every spelling the database takes for a tag, such as one differing in case or accents,
+ * finds the same posts.
+ * </p>
+ */
+@Component
+final class BlogTagIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlogTagIndex.class);
+
+    private final BlogPostTagJdbcRepository postTagRepository;
+
+    private final BlogTagResolver tagResolver;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Postings postings = new Postings();
+
+    /**
+     * Changes applied while the index is being rebuilt, or null when no rebuild is running.
+     */
+    private List<Change> pendingChanges;
+
+    BlogTagIndex(BlogPostTagJdbcRepository postTagRepository, BlogTagResolver tagResolver) {
+        this.postTagRepository = postTagRepository;
+        this.tagResolver = tagResolver;
+    }
+
+    /**
+     * Builds the index once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void build() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the index from the tag assignments in the database, unless a rebuild is running.
+     * <p>
+     * The assignments are read outside of any transaction, so from the primary even when read
+     * replicas are configured: the changes recorded during the rebuild are only those made after
+     * it started, so the assignments read must include every change committed before.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${blog.tags.index.rebuild-interval:1h}",
+            initialDelayString = "${blog.tags.index.rebuild-interval:1h}")
+    void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                return;
+            }
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<Integer, Tag> tags = new HashMap<>();
+        try {
+            postTagRepository.forEachPostTag((postId, tag) ->
+                    tags.computeIfAbsent(tag.id(), id -> new Tag(tag)).posts.add(postId));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        Postings rebuilt = new Postings(tags);
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach(change -> change.applyTo(rebuilt));
+            pendingChanges = null;
+            postings = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Indexed {} tags", tags.size());
+    }
+
+    /**
+     * Records that the given post carries the given tag, once the current transaction commits.
+     *
+     * @param tag    the stored tag
+     * @param postId the identifier of the blog post
+     */
+    void add(BlogTagRef tag, int postId) {
+        afterCommit(new Change(tag, postId, true));
+    }
+
+    /**
+     * Records that the given post no longer carries the given tag, once the current transaction commits.
+     *
+     * @param tag    the stored tag
+     * @param postId the identifier of the blog post
+     */
+    void remove(BlogTagRef tag, int postId) {
+        afterCommit(new Change(tag, postId, false));
+    }
+
+    /**
+     * Finds the posts matching a boolean tag expression, in ascending identifier order.
+     * <p>
+     * A post matches if it carries every tag of {@code all}, at least one tag of {@code any}
+     * and none of the tags of {@code none}. An empty {@code all} or {@code any} does not
+     * restrict the result, but at least one of them must be given. A tag that does not exist
+     * is carried by no post.
+     * </p>
+     *
+     * @param all     the tags a post must all carry
+     * @param any     the tags a post must carry at least one of
+     * @param none    the tags a post must not carry
+     * @param afterId the identifier after which the results start (exclusive)
+     * @param limit   the maximum number of identifiers to return
+     * @return the identifiers of the matching posts
+     * @throws InvalidRequestException if both {@code all} and {@code any} are empty
+     */
+    List<Integer> findPostIds(Collection<String> all, Collection<String> any, Collection<String> none,
+                              int afterId, int limit) {
+        if (all.isEmpty() && any.isEmpty()) {
+            throw new InvalidRequestException("At least one tag to match must be given.");
+        }
+        Set<String> tagNames = new HashSet<>(all);
+        tagNames.addAll(any);
+        tagNames.addAll(none);
+        Map<String, BlogTagRef> tags = tagResolver.findAll(tagNames);
+        RoaringBitmap matches;
+        lock.readLock().lock();
+        try {
+            matches = null;
+            for (String tagName : all) {
+                RoaringBitmap posts = postsOf(tags.get(tagName));
+                matches = matches == null ? posts.clone() : RoaringBitmap.and(matches, posts);
+            }
+            if (!any.isEmpty()) {
+                RoaringBitmap anyPosts = RoaringBitmap.or(any.stream()
+                        .map(tagName -> postsOf(tags.get(tagName)))
+                        .iterator());
+                matches = matches == null ? anyPosts : RoaringBitmap.and(matches, anyPosts);
+            }
+            for (String tagName : none) {
+                matches.andNot(postsOf(tags.get(tagName)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Integer> postIds = new ArrayList<>(Math.min(limit, matches.getCardinality()));
+        PeekableIntIterator iterator = matches.getIntIterator();
+        iterator.advanceIfNeeded(afterId + 1);
+        while (iterator.hasNext() && postIds.size() < limit) {
+            postIds.add(iterator.next());
+        }
+        return postIds;
+    }
+
+    /**
+     * Returns the tags carried by the most posts, most used first.
+     *
+     * @param n the maximum number of tags to return
+     * @return the names and number of posts of the most used tags
+     */
+    List<BlogTagCount> findTopTags(int n) {
+        lock.readLock().lock();
+        try {
+            return postings.byCount.stream().limit(n).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the tags carried by a post.
+     * <p>
+     * This scans the posts of every tag, which is cheap compared to a round trip to the
+     * database for the few tags of one post.
+     * </p>
+     *
+     * @param postId the identifier of the post
+     * @return the stored tags of the post
+     */
+    List<BlogTagRef> findTags(int postId) {
+        lock.readLock().lock();
+        try {
+            List<BlogTagRef> tags = new ArrayList<>();
+            for (Tag tag : postings.tags.values()) {
+                if (tag.posts.contains(postId)) {
+                    tags.add(tag.ref);
+                }
+            }
+            return tags;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap postsOf(BlogTagRef tagRef) {
+        Tag tag = tagRef != null ? postings.tags.get(tagRef.id()) : null;
+        return tag != null ? tag.posts : new RoaringBitmap();
+    }
+
+    private void afterCommit(Change change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Change change) {
+        lock.writeLock().lock();
+        try {
+            change.applyTo(postings);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private record Change(BlogTagRef tag, int postId, boolean added) {
+
+        void applyTo(Postings postings) {
+            if (added) {
+                postings.add(tag, postId);
+            } else {
+                postings.remove(tag.id(), postId);
+            }
+        }
+    }
+
+    /**
+     * Bitmap and post count of a tag, under its stored name.
+     */
+    private static final class Tag {
+
+        private final BlogTagRef ref;
+
+        private final RoaringBitmap posts = new RoaringBitmap();
+
+        private Tag(BlogTagRef ref) {
+            this.ref = ref;
+        }
+
+        private BlogTagCount count() {
+            return new BlogTagCount(ref.name(), posts.getCardinality());
+        }
+    }
+
+    /**
+     * The tags by identifier, together with their counts ordered from the most used tag.
+     */
+    private static final class Postings {
+
+        private static final Comparator<BlogTagCount> MOST_USED_FIRST = Comparator
+                .comparingInt(BlogTagCount::posts).reversed()
+                .thenComparing(BlogTagCount::name);
+
+        private final Map<Integer, Tag> tags;
+
+        private final NavigableSet<BlogTagCount> byCount = new TreeSet<>(MOST_USED_FIRST);
+
+        private Postings() {
+            this(new HashMap<>());
+        }
+
+        private Postings(Map<Integer, Tag> tags) {
+            this.tags = tags;
+            for (Tag tag : tags.values()) {
+                tag.posts.runOptimize();
+                byCount.add(tag.count());
+            }
+        }
+
+        private void add(BlogTagRef ref, int postId) {
+            Tag tag = tags.computeIfAbsent(ref.id(), id -> new Tag(ref));
+            BlogTagCount before = tag.count();
+            if (tag.posts.checkedAdd(postId)) {
+                byCount.remove(before);
+                byCount.add(tag.count());
+            }
+        }
+
+        private void remove(int tagId, int postId) {
+            Tag tag = tags.get(tagId);
+            if (tag == null) {
+                return;
+            }
+            BlogTagCount before = tag.count();
+            if (tag.posts.checkedRemove(postId)) {
+                byCount.remove(before);
+                if (tag.posts.isEmpty()) {
+                    tags.remove(tagId);
+                } else {
+                    byCount.add(tag.count());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.scalefocus.mk.blog.api.blog;
+
+/**
+ * Reference to a stored tag.
+ * <p>
+ * Names equal under the collation of the tag names, such as names differing only in case or
+ * accents, refer to the same stored tag. The identifier is therefore the key of a tag in the
+ * in-memory structures, and the name is the one stored, whichever spelling was requested.
+ * </p>
+ *
+ * @param id   the identifier of the tag
+ * @param name the stored name of the tag
+ */
+record BlogTagRef(int id, String name) {
+}
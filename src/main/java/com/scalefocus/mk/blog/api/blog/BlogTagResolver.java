@@ -0,0 +1,167 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Resolver of tag names to the stored tags.
+ * <p>
+ * Resolved tags are kept in a bounded in-memory cache that is warmed with the existing tags at
+ * startup, so tag operations need no lookup query in steady state. A missing tag is created
+ * with an atomic insert-if-absent, which makes concurrent creations of the same tag converge on
+ * a single row instead of failing on the unique name constraint. Concurrent misses for the same
+ * name are de-duplicated by the cache, so only one of them reaches the database.
+ * </p>
+ * <p>
+ * Tags are created in their own transaction, committed before the tag is cached, so a rollback
+ * of the calling transaction can never leave an identifier of a missing row in the cache. The
+ * cache is keyed by the names as requested, and every spelling the database takes for the same
+ * tag, such as one differing in case or accents, resolves to the same {@link BlogTagRef}, whose
+ * identifier the other tag structures are keyed by.
+ * </p>
+ */
+@Component
+final class BlogTagResolver {
+
+    static final String TAG_IDS_CACHE = "blog.tags.ids";
+
+    private final BlogPostTagJdbcRepository postTagRepository;
+
+    private final TransactionTemplate requiresNew;
+
+    private final long maximumSize;
+
+    private final Cache<String, BlogTagRef> tags;
+
+    BlogTagResolver(BlogPostTagJdbcRepository postTagRepository,
+                    PlatformTransactionManager transactionManager,
+                    @Value("${blog.tags.cache.max-size:100000}") long maximumSize,
+                    MeterRegistry meterRegistry) {
+        this.postTagRepository = postTagRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maximumSize = maximumSize;
+        this.tags = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tags, TAG_IDS_CACHE);
+    }
+
+    /**
+     * Loads the existing tags into the cache, up to its maximum size.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void warmUp() {
+        postTagRepository.forEachTag(maximumSize, tag -> tags.put(tag.name(), tag));
+    }
+
+    /**
+     * Returns the given tag, creating it if it does not exist.
+     *
+     * @param tagName the name of the tag
+     * @return the stored tag
+     */
+    BlogTagRef resolve(String tagName) {
+        BlogTagRef tag = tags.get(tagName, name -> requiresNew.execute(status -> {
+            postTagRepository.insertMissingTags(List.of(name));
+            return postTagRepository.findTags(List.of(name)).get(name);
+        }));
+        tags.put(tag.name(), tag);
+        return tag;
+    }
+
+    /**
+     * Returns the given tags, creating the tags that do not exist.
+     * <p>
+     * The missing tags are created with one statement and read with one query. A name equal to
+     * an existing one only under the collation of the tag names, such as one differing in
+     * accents, creates no tag and resolves to the existing one.
+     * </p>
+     *
+     * @param tagNames the names of the tags
+     * @return the stored tag of every tag, by requested name
+     */
+    Map<String, BlogTagRef> resolveAll(Collection<String> tagNames) {
+        Map<String, BlogTagRef> resolved = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (String tagName : tagNames) {
+            BlogTagRef tag = tags.getIfPresent(tagName);
+            if (tag != null) {
+                resolved.put(tagName, tag);
+            } else {
+                missing.add(tagName);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, BlogTagRef> created = requiresNew.execute(status -> {
+                postTagRepository.insertMissingTags(missing);
+                return postTagRepository.findTags(missing);
+            });
+            for (String tagName : missing) {
+                BlogTagRef tag = created.get(tagName);
+                cache(tagName, tag);
+                resolved.put(tagName, tag);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Returns the given tag without creating it.
+     *
+     * @param tagName the name of the tag
+     * @return the stored tag, or empty if the tag does not exist
+     */
+    Optional<BlogTagRef> find(String tagName) {
+        return Optional.ofNullable(findAll(Set.of(tagName)).get(tagName));
+    }
+
+    /**
+     * Returns the given tags without creating them.
+     *
+     * @param tagNames the names of the tags
+     * @return the stored tag of every existing tag, by requested name
+     */
+    Map<String, BlogTagRef> findAll(Collection<String> tagNames) {
+        Map<String, BlogTagRef> found = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (String tagName : tagNames) {
+            BlogTagRef tag = tags.getIfPresent(tagName);
+            if (tag != null) {
+                found.put(tagName, tag);
+            } else {
+                missing.add(tagName);
+            }
+        }
+        if (!missing.isEmpty()) {
+            postTagRepository.findTags(missing).forEach((tagName, tag) -> {
+                cache(tagName, tag);
+                found.put(tagName, tag);
+            });
+        }
+        return found;
+    }
+
+    private void cache(String tagName, BlogTagRef tag) {
+        tags.put(tagName, tag);
+        tags.put(tag.name(), tag);
+    }
+}
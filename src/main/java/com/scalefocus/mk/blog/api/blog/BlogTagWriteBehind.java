@@ -0,0 +1,325 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.scalefocus.mk.blog.api.shared.exceptions.EntityPersistenceException;
+import com.scalefocus.mk.blog.api.shared.persistence.BackgroundDatabaseAccess;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind queue for changes of the tags of blog posts.
+ * <p>
+ * When enabled, tags added to and removed from posts are not written by the request, but kept
+ * in a bounded in-memory queue and written in batches by a background virtual thread, through
+ * {@link BlogPostService#applyTagChanges(List)}. Changes of the same tag of the same post are
+ * coalesced while they wait: the later change replaces the earlier one, so adding and then
+ * removing a tag writes a single removal. Tags are resolved through the {@link BlogTagResolver}
+ * when their changes are queued and coalesced by identifier, so that changes under any spelling
+ * the database takes for the same tag, such as one differing in case or accents, replace each
+ * other. A batch is written once it holds enough changes or the flush interval has elapsed.
+ * </p>
+ * <p>
+ * When the queue is full, a new change waits for room up to the offer timeout and is then
+ * rejected with 503 Service Unavailable. On shutdown, the queue is drained before the
+ * application stops. Batches are written as {@link BackgroundDatabaseAccess} work, which waits
+ * for the database bulkhead instead of being rejected by it when the database is busy, so that
+ * load slows the writes down without losing accepted changes. If a batch cannot be written,
+ * its posts are written one by one, so that a single failing post, for example one deleted in
+ * the meantime, only loses its own changes.
+ * </p>
+ */
+@Component
+final class BlogTagWriteBehind implements SmartLifecycle {
+
+    static final String QUEUE_METRIC = "blog.tags.write.behind.queue";
+
+    static final String FLUSH_METRIC = "blog.tags.write.behind.flush";
+
+    static final String DROPPED_METRIC = "blog.tags.write.behind.dropped";
+
+    private static final Logger logger = LoggerFactory.getLogger(BlogTagWriteBehind.class);
+
+    private final BlogPostService blogPostService;
+
+    private final BlogTagResolver tagResolver;
+
+    private final boolean enabled;
+
+    private final int capacity;
+
+    private final int batchSize;
+
+    private final Duration flushInterval;
+
+    private final Duration offerTimeout;
+
+    private final Timer flushTimer;
+
+    private final Counter droppedCounter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notFull = lock.newCondition();
+
+    private final Condition batchReady = lock.newCondition();
+
+    /**
+     * The pending changes by post, in order of arrival, then by tag identifier.
+     */
+    private final Map<Integer, Map<Integer, Mutation>> pending = new LinkedHashMap<>();
+
+    private int size;
+
+    private boolean running;
+
+    private Thread worker;
+
+    BlogTagWriteBehind(@Lazy BlogPostService blogPostService,
+                       BlogTagResolver tagResolver,
+                       @Value("${blog.tags.write-behind.enabled:false}") boolean enabled,
+                       @Value("${blog.tags.write-behind.capacity:10000}") int capacity,
+                       @Value("${blog.tags.write-behind.batch-size:500}") int batchSize,
+                       @Value("${blog.tags.write-behind.flush-interval:200ms}") Duration flushInterval,
+                       @Value("${blog.tags.write-behind.offer-timeout:1s}") Duration offerTimeout,
+                       MeterRegistry meterRegistry) {
+        this.blogPostService = blogPostService;
+        this.tagResolver = tagResolver;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.offerTimeout = offerTimeout;
+        this.flushTimer = Timer.builder(FLUSH_METRIC).register(meterRegistry);
+        this.droppedCounter = Counter.builder(DROPPED_METRIC).register(meterRegistry);
+        Gauge.builder(QUEUE_METRIC, this, BlogTagWriteBehind::queueDepth).register(meterRegistry);
+    }
+
+    /**
+     * Tells whether tag changes are written behind.
+     *
+     * @return true if the write-behind mode is enabled
+     */
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the addition of a tag to a post, creating the tag if it does not exist.
+     *
+     * @param postId  the identifier of the post
+     * @param tagName the name of the tag
+     * @throws EntityPersistenceException if the queue stays full for the offer timeout
+     */
+    void add(int postId, String tagName) {
+        enqueue(postId, new Mutation(tagResolver.resolve(tagName), true));
+    }
+
+    /**
+     * Queues the removal of a tag from a post, unless the tag does not exist.
+     *
+     * @param postId  the identifier of the post
+     * @param tagName the name of the tag
+     * @throws EntityPersistenceException if the queue stays full for the offer timeout
+     */
+    void remove(int postId, String tagName) {
+        tagResolver.find(tagName).ifPresent(tag -> enqueue(postId, new Mutation(tag, false)));
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            running = true;
+        } finally {
+            lock.unlock();
+        }
+        worker = Thread.ofVirtual().name("blog-tag-write-behind").start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        if (worker == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            running = false;
+            batchReady.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        worker = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return worker != null;
+    }
+
+    /**
+     * Starts before and stops after the web server, so that every accepted change is written.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    int queueDepth() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(int postId, Mutation mutation) {
+        int key = mutation.tag().id();
+        long nanos = offerTimeout.toNanos();
+        lock.lock();
+        try {
+            while (true) {
+                if (!running) {
+                    throw unavailable("Tag changes are not accepted while the application stops.");
+                }
+                Map<Integer, Mutation> mutations = pending.get(postId);
+                if (mutations != null && mutations.containsKey(key)) {
+                    mutations.put(key, mutation);
+                    return;
+                }
+                if (size < capacity) {
+                    pending.computeIfAbsent(postId, id -> new LinkedHashMap<>()).put(key, mutation);
+                    if (++size == 1 || size >= batchSize) {
+                        batchReady.signal();
+                    }
+                    return;
+                }
+                if (nanos <= 0) {
+                    throw unavailable("Too many pending tag changes, try again later.");
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw unavailable("Interrupted while waiting to queue the tag change.");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        List<BlogPostTagChange> batch;
+        while ((batch = take()) != null) {
+            if (!batch.isEmpty()) {
+                List<BlogPostTagChange> changes = batch;
+                flushTimer.record(() -> BackgroundDatabaseAccess.run(() -> flush(changes)));
+            }
+        }
+    }
+
+    /**
+     * Waits for the next batch and removes it from the queue.
+     *
+     * @return the changes of the batch, or null once the queue is stopped and drained
+     */
+    private List<BlogPostTagChange> take() {
+        lock.lock();
+        try {
+            while (running && size == 0) {
+                batchReady.await();
+            }
+            long nanos = flushInterval.toNanos();
+            while (running && size < batchSize && nanos > 0) {
+                nanos = batchReady.awaitNanos(nanos);
+            }
+            if (!running && pending.isEmpty()) {
+                return null;
+            }
+            List<BlogPostTagChange> changes = new ArrayList<>();
+            int taken = 0;
+            Iterator<Map.Entry<Integer, Map<Integer, Mutation>>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext() && taken < batchSize) {
+                Map.Entry<Integer, Map<Integer, Mutation>> entry = iterator.next();
+                changes.add(toChange(entry.getKey(), entry.getValue().values()));
+                taken += entry.getValue().size();
+                iterator.remove();
+            }
+            size -= taken;
+            notFull.signalAll();
+            return changes;
+        } catch (InterruptedException e) {
+            logger.warn("Interrupted while waiting for tag changes, draining the queue");
+            running = false;
+            return List.of();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flush(List<BlogPostTagChange> changes) {
+        try {
+            blogPostService.applyTagChanges(changes);
+        } catch (RuntimeException e) {
+            logger.warn("Could not write {} tag changes at once, writing them post by post: {}",
+                    changes.size(), e.getMessage());
+            for (BlogPostTagChange change : changes) {
+                try {
+                    blogPostService.applyTagChanges(List.of(change));
+                } catch (RuntimeException postException) {
+                    droppedCounter.increment(change.add().size() + change.remove().size());
+                    logger.error("Dropped the tag changes of post {}: {}", change.postId(), postException.getMessage());
+                }
+            }
+        }
+    }
+
+    private static BlogPostTagChange toChange(int postId, Iterable<Mutation> mutations) {
+        Set<String> add = new HashSet<>();
+        Set<String> remove = new HashSet<>();
+        for (Mutation mutation : mutations) {
+            (mutation.add() ? add : remove).add(mutation.tag().name());
+        }
+        return new BlogPostTagChange(postId, add, remove);
+    }
+
+    private static EntityPersistenceException unavailable(String message) {
+        return new EntityPersistenceException(message, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * A pending change of one tag of a post.
+     *
+     * @param tag the stored tag
+     * @param add true to add the tag, false to remove it
+     */
+    private record Mutation(BlogTagRef tag, boolean add) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.scalefocus.mk.blog.api.core.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class for scheduled tasks.
+ * <p>
+ * This class enables the processing of {@code @Scheduled} methods, which run on the task
+ * scheduler auto-configured by Spring Boot.
+ * </p>
+ */
+@Configuration
+@EnableScheduling
+class SchedulingConfig {
+}
@@ -0,0 +1,94 @@
+package com.scalefocus.mk.blog.api.core.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actuator endpoint showing the latency percentiles of every timed operation.
+ * <p>
+ * Served at "/actuator/latency", it lists, for the request, service, blog post loading and
+ * repository timers, every operation with its count, mean, maximum and 50th, 95th and 99th
+ * percentiles in milliseconds, slowest 99th percentile first, so that hot paths stand out.
+ * Percentiles are only known for timers configured to publish them.
+ * </p>
+ */
+@Component
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+
+    static final List<String> TIMERS = List.of(
+            "http.server.requests",
+            "blog.service",
+            "blog.posts.load",
+            "spring.data.repository.invocations");
+
+    private final MeterRegistry meterRegistry;
+
+    LatencyEndpoint(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Returns the latencies of the operations of every timer.
+     *
+     * @return the operations by timer name, slowest first
+     */
+    @ReadOperation
+    public Map<String, List<OperationLatency>> latencies() {
+        Map<String, List<OperationLatency>> latencies = new LinkedHashMap<>();
+        for (String name : TIMERS) {
+            latencies.put(name, meterRegistry.find(name).timers().stream()
+                    .map(LatencyEndpoint::latencyOf)
+                    .sorted(Comparator.comparing(OperationLatency::p99, Comparator.nullsLast(Comparator.reverseOrder())))
+                    .toList());
+        }
+        return latencies;
+    }
+
+    private static OperationLatency latencyOf(Timer timer) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        for (Tag tag : timer.getId().getTags()) {
+            tags.put(tag.getKey(), tag.getValue());
+        }
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        return new OperationLatency(tags, snapshot.count(),
+                snapshot.mean(TimeUnit.MILLISECONDS), snapshot.max(TimeUnit.MILLISECONDS),
+                percentile(snapshot, 0.5), percentile(snapshot, 0.95), percentile(snapshot, 0.99));
+    }
+
+    private static Double percentile(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (Math.abs(value.percentile() - percentile) < 1e-9) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Latency of one operation, in milliseconds.
+     *
+     * @param tags  the tags identifying the operation
+     * @param count the number of timed executions
+     * @param mean  the mean duration
+     * @param max   the maximum duration in the recent past
+     * @param p50   the 50th percentile, or null if it is not published
+     * @param p95   the 95th percentile, or null if it is not published
+     * @param p99   the 99th percentile, or null if it is not published
+     */
+    public record OperationLatency(Map<String, String> tags, long count, double mean, double max,
+                                   Double p50, Double p95, Double p99) {
+    }
+}
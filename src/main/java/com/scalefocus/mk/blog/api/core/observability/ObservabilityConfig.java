@@ -0,0 +1,80 @@
+package com.scalefocus.mk.blog.api.core.observability;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.observation.ObservationFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Configuration of the tags of the service and repository timers.
+ * <p>
+ * Services annotated with {@code @Observed} are timed by the observation aspect, and the
+ * Spring Data repositories by the repository metrics of Spring Boot. This class adds the same
+ * two tags to both: the endpoint, the HTTP method and path pattern of the request the operation
+ * runs for, or "none" for background work, and the outcome, SUCCESS or ERROR. Percentiles and
+ * histograms of the timers are configured in the application properties and served by the
+ * {@link LatencyEndpoint}.
+ * </p>
+ */
+@Configuration
+class ObservabilityConfig {
+
+    static final String OBSERVATION_PREFIX = "blog.";
+
+    static final String ENDPOINT_TAG = "endpoint";
+
+    static final String OUTCOME_TAG = "outcome";
+
+    private static final String NONE = "none";
+
+    /**
+     * Adds the endpoint and outcome tags to the observations of the application.
+     *
+     * @return the observation filter
+     */
+    @Bean
+    ObservationFilter endpointAndOutcomeObservationFilter() {
+        return context -> {
+            if (context.getName() != null && context.getName().startsWith(OBSERVATION_PREFIX)) {
+                context.addLowCardinalityKeyValue(KeyValue.of(ENDPOINT_TAG, currentEndpoint()));
+                context.addLowCardinalityKeyValue(KeyValue.of(OUTCOME_TAG,
+                        context.getError() == null ? "SUCCESS" : "ERROR"));
+            }
+            return context;
+        };
+    }
+
+    /**
+     * Adds the endpoint and outcome tags to the default tags of the repository timers.
+     *
+     * @return the repository tags provider
+     */
+    @Bean
+    RepositoryTagsProvider endpointRepositoryTagsProvider() {
+        DefaultRepositoryTagsProvider defaultTags = new DefaultRepositoryTagsProvider();
+        return invocation -> Tags.of(defaultTags.repositoryTags(invocation))
+                .and(Tag.of(ENDPOINT_TAG, currentEndpoint()))
+                .and(Tag.of(OUTCOME_TAG, invocation.getResult() != null
+                        ? invocation.getResult().getState().name()
+                        : NONE));
+    }
+
+    private static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return NONE;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? request.getMethod() + " " + pattern : NONE;
+    }
+}
@@ -0,0 +1,112 @@
+package com.scalefocus.mk.blog.api.core.observability;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interceptor enforcing a budget of SQL statements per request.
+ * <p>
+ * This interceptor counts the statements every request issues through the
+ * {@link SqlStatementCounter} and the time spent executing them, and stores both as request
+ * attributes, so that tests can assert the statements of an endpoint. Requests issuing more
+ * statements than the budget, typically N+1 queries, are logged as warnings. Both are also
+ * published as metrics per endpoint. Statements issued by other threads, such as those of a
+ * streaming export, are not counted.
+ * </p>
+ */
+final class SqlStatementBudget implements AsyncHandlerInterceptor {
+
+    static final String STATEMENTS_ATTRIBUTE = "blog.sql.statements";
+
+    static final String TIME_ATTRIBUTE = "blog.sql.time";
+
+    static final String STATEMENTS_METRIC = "blog.sql.statements";
+
+    static final String TIME_METRIC = "blog.sql.time";
+
+    static final String EXCEEDED_METRIC = "blog.sql.budget.exceeded";
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementBudget.class);
+
+    private final int maxStatements;
+
+    private final MeterRegistry meterRegistry;
+
+    SqlStatementBudget(int maxStatements, MeterRegistry meterRegistry) {
+        this.maxStatements = maxStatements;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Starts counting the statements of the request.
+     *
+     * @param request  the incoming HTTP request
+     * @param response the HTTP response
+     * @param handler  the handler (or controller) to execute
+     * @return always true
+     */
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            SqlStatementCounter.start();
+        }
+        return true;
+    }
+
+    /**
+     * Stops counting when the request continues asynchronously, on another thread.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        SqlStatementCounter.stop();
+    }
+
+    /**
+     * Records the statements of the request and checks them against the budget.
+     *
+     * @param request  the HTTP request
+     * @param response the HTTP response
+     * @param handler  the handler (or controller) that was executed
+     * @param ex       the exception thrown by the handler, if any
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        SqlStatementCounter.Count count = SqlStatementCounter.stop();
+        if (count == null) {
+            return;
+        }
+        request.setAttribute(STATEMENTS_ATTRIBUTE, count.statements());
+        request.setAttribute(TIME_ATTRIBUTE, TimeUnit.NANOSECONDS.toMillis(count.nanos()));
+
+        String endpoint = request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder(STATEMENTS_METRIC)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(count.statements());
+        Timer.builder(TIME_METRIC)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(count.nanos(), TimeUnit.NANOSECONDS);
+        if (count.statements() > maxStatements) {
+            Counter.builder(EXCEEDED_METRIC)
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry)
+                    .increment();
+            logger.warn("{} issued {} SQL statements in {} ms, over the budget of {}", endpoint,
+                    count.statements(), TimeUnit.NANOSECONDS.toMillis(count.nanos()), maxStatements);
+        }
+    }
+}
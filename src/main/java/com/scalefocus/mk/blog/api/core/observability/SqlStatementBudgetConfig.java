@@ -0,0 +1,55 @@
+package com.scalefocus.mk.blog.api.core.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration of the budget of SQL statements per request.
+ * <p>
+ * Unless {@code blog.sql.budget.enabled} is false, this class wraps the data sources of the
+ * application in a {@link SqlStatementCounter} and registers the {@link SqlStatementBudget}
+ * interceptor for every request, with the budget of {@code blog.sql.budget.max-statements}.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "blog.sql.budget.enabled", matchIfMissing = true)
+class SqlStatementBudgetConfig implements WebMvcConfigurer {
+
+    private final int maxStatements;
+
+    private final MeterRegistry meterRegistry;
+
+    SqlStatementBudgetConfig(@Value("${blog.sql.budget.max-statements:10}") int maxStatements,
+                             MeterRegistry meterRegistry) {
+        this.maxStatements = maxStatements;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Wraps every data source so that the statements of its connections are counted.
+     *
+     * @return the bean post processor
+     */
+    @Bean
+    static BeanPostProcessor sqlStatementCountingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? SqlStatementCounter.wrap(dataSource) : bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlStatementBudget(maxStatements, meterRegistry));
+    }
+}
@@ -0,0 +1,150 @@
+package com.scalefocus.mk.blog.api.core.observability;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counter of the SQL statements executed by the current thread.
+ * <p>
+ * The connections of a {@link DataSource} wrapped by {@link #wrap(DataSource)} count every
+ * statement they execute, and the time spent executing it, for the thread executing it, while
+ * a count is started on that thread. A JDBC batch counts as a single statement, as it is sent
+ * in a single round trip. Statements are counted below Hibernate and the JDBC templates alike,
+ * so that a count covers every statement a request issues, whichever way it is issued.
+ * </p>
+ */
+final class SqlStatementCounter {
+
+    private static final ThreadLocal<Count> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    /**
+     * Starts counting the statements of the current thread, discarding any previous count.
+     */
+    static void start() {
+        CURRENT.set(new Count());
+    }
+
+    /**
+     * Stops counting the statements of the current thread.
+     *
+     * @return the statements counted since the count was started, or null if it was not started
+     */
+    static Count stop() {
+        Count count = CURRENT.get();
+        CURRENT.remove();
+        return count;
+    }
+
+    /**
+     * Wraps a data source so that the statements of its connections are counted.
+     *
+     * @param dataSource the data source to wrap
+     * @return the counting data source
+     */
+    static DataSource wrap(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                return countingConnection(obtainTargetDataSource().getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return countingConnection(obtainTargetDataSource().getConnection(username, password));
+            }
+        };
+    }
+
+    private static Connection countingConnection(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            return result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())
+                    ? countingStatement(method.getReturnType(), statement)
+                    : result;
+        });
+    }
+
+    private static Object countingStatement(Class<?> type, Statement statement) {
+        return proxy(type, statement, (target, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return invoke(target, method, args);
+            } finally {
+                Count count = CURRENT.get();
+                if (count != null) {
+                    count.statements++;
+                    count.nanos += System.nanoTime() - start;
+                }
+            }
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> handler.invoke(target, method, args);
+        };
+        return type.cast(Proxy.newProxyInstance(SqlStatementCounter.class.getClassLoader(),
+                new Class<?>[]{type}, invocationHandler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * Handles a call on a proxied JDBC object.
+     */
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    /**
+     * The statements counted on one thread.
+     */
+    static final class Count {
+
+        private int statements;
+
+        private long nanos;
+
+        /**
+         * Returns the number of statements executed.
+         *
+         * @return the number of statements
+         */
+        int statements() {
+            return statements;
+        }
+
+        /**
+         * Returns the time spent executing the statements.
+         *
+         * @return the time in nanoseconds
+         */
+        long nanos() {
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.scalefocus.mk.blog.api.core.security.rate_limit;
+
+import com.scalefocus.mk.blog.api.shared.auth.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Resolves the key identifying the client of a request for rate limiting.
+ */
+@FunctionalInterface
+interface ClientKeyResolver {
+
+  /**
+   * Prefix of the keys of anonymous clients, so that they never collide with a username.
+   */
+  String ANONYMOUS_PREFIX = "ip:";
+
+  /**
+   * Resolves the client key of the given request.
+   *
+   * @param request the incoming HTTP request
+   * @return the client key
+   */
+  String resolve(HttpServletRequest request);
+
+  /**
+   * Returns a resolver keying clients on their IP address.
+   *
+   * @return the resolver
+   */
+  static ClientKeyResolver ipAddress() {
+    return HttpServletRequest::getRemoteAddr;
+  }
+
+  /**
+   * Returns a resolver keying authenticated clients on their username and anonymous clients
+   * on their IP address.
+   * <p>
+   * The username is read from the JWT of the security context, so no HTTP session is needed
+   * to recognize the client across requests.
+   * </p>
+   *
+   * @param authService the service providing the current username
+   * @return the resolver
+   */
+  static ClientKeyResolver username(AuthService authService) {
+    return request -> {
+      String username = authService.getCurrentUsername();
+      return username != null ? username : ANONYMOUS_PREFIX + request.getRemoteAddr();
+    };
+  }
+}
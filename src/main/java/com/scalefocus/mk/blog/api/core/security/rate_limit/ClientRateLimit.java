@@ -0,0 +1,55 @@
+package com.scalefocus.mk.blog.api.core.security.rate_limit;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Interceptor for applying rate limiting per client.
+ * <p>
+ * This interceptor identifies the client of every incoming request through a
+ * {@link ClientKeyResolver} and checks its rate limit against the {@link RateLimitStore} of
+ * the route, rejecting requests that exceed the allowed rate. No HTTP session is created.
+ * </p>
+ */
+final class ClientRateLimit implements HandlerInterceptor {
+
+  private final RateLimitStore store;
+  private final ClientKeyResolver clientKeyResolver;
+
+  ClientRateLimit(RateLimitStore store, ClientKeyResolver clientKeyResolver) {
+    this.store = store;
+    this.clientKeyResolver = clientKeyResolver;
+  }
+
+  /**
+   * Pre-handle method to check and enforce rate limits before processing the request.
+   *
+   * @param request  the incoming HTTP request
+   * @param response the HTTP response
+   * @param handler  the handler (or controller) to execute
+   * @return true if the request is allowed, false otherwise
+   */
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (request.getDispatcherType() == DispatcherType.ASYNC) {
+      return true; // already counted when the asynchronous request was started
+    }
+    if (store.tryAcquire(clientKeyResolver.resolve(request))) {
+      return true;
+    }
+    return tooManyRequestsResponse(response);
+  }
+
+  /**
+   * Sends a 429 Too Many Requests response.
+   *
+   * @param response the HTTP response
+   * @return false to indicate the request is blocked
+   */
+  private boolean tooManyRequestsResponse(HttpServletResponse response) {
+    response.setStatus(429);
+    return false;
+  }
+}
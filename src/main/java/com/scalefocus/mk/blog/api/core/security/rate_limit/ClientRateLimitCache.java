@@ -0,0 +1,93 @@
+package com.scalefocus.mk.blog.api.core.security.rate_limit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Cache for storing clients and their associated rate limit information.
+ * <p>
+ * This class maps client keys to their {@link ClientRateLimitState} in a concurrent, bounded
+ * cache shared by all requests of a route. Entries expire individually once a client has been
+ * idle for the configured timeout. The cache is bounded by the estimated memory of its entries
+ * rather than by their count: every entry is weighed by {@link #estimateEntryBytes(String)} and
+ * the least recently used clients are evicted once the configured budget is reached.
+ * </p>
+ */
+final class ClientRateLimitCache {
+
+  /**
+   * Estimated fixed cost of an entry in bytes: the cache node and hash table slot, the key
+   * {@link String} and its backing array header, and the {@link ClientRateLimitState} with
+   * its two atomics, on a 64-bit JVM with compressed references.
+   */
+  static final int ENTRY_OVERHEAD_BYTES = 192;
+
+  private final Cache<String, ClientRateLimitState> clients;
+
+  ClientRateLimitCache(long maximumBytes, Duration idleTimeout) {
+    this.clients = Caffeine.newBuilder()
+            .maximumWeight(maximumBytes)
+            .weigher((String key, ClientRateLimitState state) -> estimateEntryBytes(key))
+            .expireAfterAccess(idleTimeout)
+            .build();
+  }
+
+  /**
+   * Returns the rate limit information of the given client, creating it on first use.
+   * <p>
+   * The lookup of a known client does not allocate; the initial state is only computed
+   * when the client is seen for the first time.
+   * </p>
+   *
+   * @param clientKey   the key of the client
+   * @param rateLimiter the rate limiter providing the initial state
+   * @param now         the current monotonic time in nanoseconds
+   * @return the rate limit information of the client
+   */
+  ClientRateLimitState get(String clientKey, RateLimiter rateLimiter, long now) {
+    ClientRateLimitState clientRateLimitState = clients.getIfPresent(clientKey);
+    if (clientRateLimitState != null) {
+      return clientRateLimitState;
+    }
+    return clients.get(clientKey, key -> new ClientRateLimitState(rateLimiter.initialState(now)));
+  }
+
+  /**
+   * Returns the approximate number of tracked clients.
+   *
+   * @return the number of tracked clients
+   */
+  long estimatedSize() {
+    return clients.estimatedSize();
+  }
+
+  /**
+   * Returns the estimated memory used by the tracked clients.
+   *
+   * @return the estimated memory in bytes
+   */
+  long estimatedMemory() {
+    return clients.policy().eviction()
+            .map(eviction -> eviction.weightedSize().orElse(0L))
+            .orElse(0L);
+  }
+
+  /**
+   * Performs the pending maintenance of the cache, such as evictions.
+   */
+  void cleanUp() {
+    clients.cleanUp();
+  }
+
+  /**
+   * Estimates the memory retained by the entry of the given client.
+   *
+   * @param clientKey the key of the client
+   * @return the estimated memory in bytes
+   */
+  static int estimateEntryBytes(String clientKey) {
+    return ENTRY_OVERHEAD_BYTES + clientKey.length();
+  }
+}
@@ -0,0 +1,61 @@
+package com.scalefocus.mk.blog.api.core.security.rate_limit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class representing the rate limit information of a client.
+ * <p>
+ * This class holds the {@link RateLimiter} state and the block status of a client, identified
+ * either by its username or by its IP address. Both are atomics updated in place, so concurrent
+ * requests from the same client never replace the entry in the {@link ClientRateLimitCache}.
+ * </p>
+ */
+final class ClientRateLimitState {
+
+  private static final long NOT_BLOCKED = 0L;
+
+  /**
+   * The state of the rate limiter for this client.
+   */
+  private final AtomicLong state;
+
+  /**
+   * The monotonic time until which the client is blocked, or {@value #NOT_BLOCKED} if it is not.
+   */
+  private final AtomicLong blockedUntil = new AtomicLong(NOT_BLOCKED);
+
+  ClientRateLimitState(long initialState) {
+    this.state = new AtomicLong(initialState);
+  }
+
+  /**
+   * Tries to admit one request from the client.
+   *
+   * @param rateLimiter the rate limiter of the route
+   * @param now         the current monotonic time in nanoseconds
+   * @return true if the request is admitted, false if it exceeds the limit
+   */
+  boolean tryAcquire(RateLimiter rateLimiter, long now) {
+    return rateLimiter.tryAcquire(state, now);
+  }
+
+  /**
+   * Checks whether the client is blocked at the given time.
+   *
+   * @param now the current monotonic time in nanoseconds
+   * @return true if the client is blocked, false otherwise
+   */
+  boolean isBlocked(long now) {
+    long until = blockedUntil.get();
+    return until != NOT_BLOCKED && now - until < 0;
+  }
+
+  /**
+   * Blocks the client until the given time.
+   *
+   * @param until the monotonic time in nanoseconds at which the block ends
+   */
+  void block(long until) {
+    blockedUntil.set(until == NOT_BLOCKED ? until + 1 : until);
+  }
+}
@@ -0,0 +1,38 @@
+package com.scalefocus.mk.blog.api.core.security.rate_limit;
+
+import java.time.Duration;
+
+/**
+ * Generic Cell Rate Algorithm (GCRA) rate limiter.
+ * <p>
+ * The state of a client is its theoretical arrival time (TAT): the time at which the client
+ * would be back to an empty allowance. Every admitted request pushes it forward by one emission
+ * interval, and a request is rejected when that would put it more than one period ahead of now.
+ * This admits bursts of up to {@code limit} requests and then spaces requests evenly, without
+ * the doubled bursts a fixed window allows at its boundaries.
+ * </p>
+ */
+final class GcraRateLimiter implements RateLimiter {
+
+  private final long emissionInterval;
+  private final long period;
+
+  GcraRateLimiter(int limit, Duration period) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("Rate limit must be positive: " + limit);
+    }
+    this.period = period.toNanos();
+    this.emissionInterval = Math.max(1, this.period / limit);
+  }
+
+  @Override
+  public long initialState(long now) {
+    return now;
+  }
+
+  @Override
+  public long tryAcquire(long state, long now) {
+    long theoreticalArrival = Math.max(state, now) + emissionInterval;
+    return theoreticalArrival - now > period ? REJECTED : theoreticalArrival;
+  }
+}
@@ -1,71 +1,143 @@
 package com.scalefocus.mk.blog.api.core.security.rate_limit;
 
-import org.springframework.context.annotation.Bean;
+import com.scalefocus.mk.blog.api.shared.auth.AuthService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import java.time.Duration;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Configuration class for registering HTTP request interceptors.
  * <p>
  * This class implements WebMvcConfigurer to register custom interceptors for handling
- * HTTP requests and applying rate limiting.
+ * HTTP requests and applying rate limiting. One interceptor is registered for every route
+ * configured in {@link RateLimitProperties}, each with its own {@link RateLimitStore}.
+ * In-memory stores publish the size and estimated memory of their client cache as metrics;
+ * database stores are flushed periodically and on shutdown.
  * </p>
  */
 @Configuration
-class HttpRequestInterceptorConfig implements WebMvcConfigurer {
+@EnableConfigurationProperties(RateLimitProperties.class)
+class HttpRequestInterceptorConfig implements WebMvcConfigurer, DisposableBean {
 
-  private final IpAddressesCache cache;
+  static final String CLIENTS_METRIC = "rate.limit.clients";
+  static final String MEMORY_METRIC = "rate.limit.clients.memory";
 
-  HttpRequestInterceptorConfig(IpAddressesCache cache) {
-    this.cache = cache;
+  private final RateLimitProperties properties;
+  private final AuthService authService;
+  private final MeterRegistry meterRegistry;
+  private final ObjectProvider<JdbcTemplate> jdbcTemplate;
+  private final List<RateLimitStore> stores = new CopyOnWriteArrayList<>();
+  private ScheduledExecutorService flushScheduler;
+
+  HttpRequestInterceptorConfig(RateLimitProperties properties, AuthService authService, MeterRegistry meterRegistry,
+                               ObjectProvider<JdbcTemplate> jdbcTemplate) {
+    this.properties = properties;
+    this.authService = authService;
+    this.meterRegistry = meterRegistry;
+    this.jdbcTemplate = jdbcTemplate;
   }
 
   /**
-   * Bean definition for the HTTP rate limit filter.
+   * Adds the custom interceptors to the interceptor registry.
    * <p>
-   * This bean creates a RateLimitFilter with a limit of 20 requests and a window of 20 seconds.
+   * This method registers a client rate limit filter keyed on the IP address for every route
+   * under {@code rate-limit.ip} and one keyed on the username for every route under
+   * {@code rate-limit.user}, each restricted to the path patterns of its route.
    * </p>
    *
-   * @return the RateLimitFilter for HTTP requests
+   * @param registry the interceptor registry
    */
-  @Bean
-  RateLimitFilter rateLimitFilterHttp() {
-    Duration duration = Duration.ofSeconds(20);
-    return new RateLimitFilter(20, duration);
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    properties.ip().forEach((name, route) ->
+            addRoute(registry, "ip", name, route, ClientKeyResolver.ipAddress()));
+    properties.user().forEach((name, route) ->
+            addRoute(registry, "user", name, route, ClientKeyResolver.username(authService)));
+    if (properties.store() == RateLimitProperties.Store.JDBC) {
+      scheduleFlushes();
+    }
   }
 
   /**
-   * Bean definition for the IP address rate limit filter.
-   * <p>
-   * This bean creates an IpAddressRateLimit with a limit of 20 requests and a window of 20 seconds,
-   * using the provided IpAddressesCache.
-   * </p>
+   * Flushes the rate limit stores before the application shuts down.
+   */
+  @Override
+  public void destroy() throws InterruptedException {
+    if (flushScheduler != null) {
+      flushScheduler.shutdown();
+      flushScheduler.awaitTermination(properties.jdbc().flushInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+    stores.forEach(RateLimitStore::flush);
+  }
+
+  /**
+   * Registers the rate limit filter of a route.
    *
-   * @return the IpAddressRateLimit for IP address-based rate limiting
+   * @param registry          the interceptor registry
+   * @param type              the type of the route
+   * @param name              the name of the route
+   * @param route             the route configuration
+   * @param clientKeyResolver the resolver identifying the clients of the route
    */
-  @Bean
-  IpAddressRateLimit rateLimitFilterForIp() {
-    Duration window = Duration.ofSeconds(20);
-    return new IpAddressRateLimit(cache, 20, window);
+  private void addRoute(InterceptorRegistry registry, String type, String name,
+                        RateLimitProperties.Route route, ClientKeyResolver clientKeyResolver) {
+    RateLimitStore store = switch (properties.store()) {
+      case MEMORY -> inMemoryStore(type, name, route);
+      case JDBC -> new JdbcRateLimitStore(jdbcTemplate.getObject(), type + "." + name, properties, route, Clock.systemUTC());
+    };
+    stores.add(store);
+    registry.addInterceptor(new ClientRateLimit(store, clientKeyResolver))
+            .addPathPatterns(route.pathPatterns())
+            .excludePathPatterns(route.excludePathPatterns());
   }
 
   /**
-   * Adds the custom interceptors to the interceptor registry.
-   * <p>
-   * This method registers both the IP address rate limit filter and the HTTP rate limit filter
-   * to apply rate limiting on all incoming requests.
-   * </p>
+   * Creates the in-memory store of a route and registers the metrics of its client cache.
    *
-   * @param registry the interceptor registry
+   * @param type  the type of the route
+   * @param name  the name of the route
+   * @param route the route configuration
+   * @return the in-memory store
    */
-  @Override
-  public void addInterceptors(InterceptorRegistry registry) {
-    registry.addInterceptor(rateLimitFilterForIp()).addPathPatterns("/**");
-    registry.addInterceptor(rateLimitFilterHttp())
-            .addPathPatterns("/**")
-            .addPathPatterns("/**");
+  private RateLimitStore inMemoryStore(String type, String name, RateLimitProperties.Route route) {
+    ClientRateLimitCache cache = new ClientRateLimitCache(properties.maxMemory().toBytes(), properties.idleTimeout());
+    Tags tags = Tags.of("type", type, "route", name);
+    Gauge.builder(CLIENTS_METRIC, cache, ClientRateLimitCache::estimatedSize)
+            .description("Number of clients tracked by the rate limiter")
+            .tags(tags)
+            .register(meterRegistry);
+    Gauge.builder(MEMORY_METRIC, cache, ClientRateLimitCache::estimatedMemory)
+            .description("Estimated memory used by the clients tracked by the rate limiter")
+            .baseUnit("bytes")
+            .tags(tags)
+            .register(meterRegistry);
+    return new InMemoryRateLimitStore(cache, route.rateLimiter(), route.blockDuration(), MonotonicClock::now);
+  }
+
+  /**
+   * Schedules the periodic flushes of the rate limit stores.
+   */
+  private void scheduleFlushes() {
+    long interval = properties.jdbc().flushInterval().toMillis();
+    flushScheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("rate-limit-flush")
+            .daemon()
+            .factory());
+    flushScheduler.scheduleWithFixedDelay(() -> stores.forEach(RateLimitStore::flush),
+            interval, interval, TimeUnit.MILLISECONDS);
   }
 }
@@ -0,0 +1,53 @@
+package com.scalefocus.mk.blog.api.core.security.rate_limit;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limit store keeping the state of the clients in the local JVM.
+ * <p>
+ * The state of every client is a {@link ClientRateLimitState} in a {@link ClientRateLimitCache}
+ * updated in place with the configured {@link RateLimiter}, so decisions never leave the
+ * process. Limits are therefore enforced per replica.
+ * </p>
+ */
+final class InMemoryRateLimitStore implements RateLimitStore {
+
+  private final ClientRateLimitCache cache;
+  private final RateLimiter rateLimiter;
+  private final long blockNanos;
+  private final LongSupplier clock;
+
+  InMemoryRateLimitStore(ClientRateLimitCache cache, RateLimiter rateLimiter, Duration blockDuration, LongSupplier clock) {
+    this.cache = cache;
+    this.rateLimiter = rateLimiter;
+    this.blockNanos = blockDuration.toNanos();
+    this.clock = clock;
+  }
+
+  /**
+   * Tries to admit one request from the given client.
+   * <p>
+   * A client exceeding the limit is blocked for the configured block duration, if any.
+   * Requests of a blocked client are rejected without extending the block.
+   * </p>
+   *
+   * @param clientKey the key of the client
+   * @return true if the request is admitted, false otherwise
+   */
+  @Override
+  public boolean tryAcquire(String clientKey) {
+    long now = clock.getAsLong();
+    ClientRateLimitState clientRateLimitState = cache.get(clientKey, rateLimiter, now);
+    if (clientRateLimitState.isBlocked(now)) {
+      return false;
+    }
+    if (!clientRateLimitState.tryAcquire(rateLimiter, now)) {
+      if (blockNanos > 0) {
+        clientRateLimitState.block(now + blockNanos);
+      }
+      return false;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,266 @@
+package com.scalefocus.mk.blog.api.core.security.rate_limit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rate limit store sharing the state of the clients between replicas through the database.
+ * <p>
+ * Every client has a row in the {@code rate_limit_bucket} table holding its GCRA theoretical
+ * arrival time (TAT) in epoch milliseconds, so all replicas enforce a single limit. The row is
+ * updated with a conditional atomic update, and created with an insert that ignores duplicates,
+ * so no row locks are held across round-trips.
+ * </p>
+ * <p>
+ * To amortize round-trips, a replica advances the TAT by several emission intervals at once and
+ * keeps the granted tokens as a local lease that serves the following requests of the client
+ * without touching the database. Leases expire after a short time; the tokens left unused are
+ * collected and credited back in batches by {@link #flush()}, which also deletes the rows of
+ * idle clients. Rejections are remembered locally for one emission interval, or for the block
+ * duration when the client gets blocked, so rejected clients do not hammer the database.
+ * </p>
+ * <p>
+ * Rows are bound to the GCRA, so routes configured with another algorithm are enforced with
+ * the equivalent GCRA parameters. If the database is unavailable, requests are admitted.
+ * </p>
+ */
+final class JdbcRateLimitStore implements RateLimitStore {
+
+  private static final Logger logger = LoggerFactory.getLogger(JdbcRateLimitStore.class);
+
+  private static final int CLEANUP_BATCH_SIZE = 1_000;
+
+  private static final String ACQUIRE_SQL = """
+          UPDATE rate_limit_bucket SET tat = GREATEST(tat, ?) + ?
+          WHERE route = ? AND client_key = ? AND GREATEST(tat, ?) + ? <= ?""";
+
+  private static final String INSERT_SQL =
+          "INSERT IGNORE INTO rate_limit_bucket (route, client_key, tat) VALUES (?, ?, ?)";
+
+  private static final String BLOCK_SQL =
+          "UPDATE rate_limit_bucket SET tat = ? WHERE route = ? AND client_key = ? AND tat <= ?";
+
+  private static final String REFUND_SQL =
+          "UPDATE rate_limit_bucket SET tat = tat - ? WHERE route = ? AND client_key = ?";
+
+  private static final String CLEANUP_SQL =
+          "DELETE FROM rate_limit_bucket WHERE route = ? AND tat < ? LIMIT " + CLEANUP_BATCH_SIZE;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final String route;
+  private final long emissionIntervalMillis;
+  private final long periodMillis;
+  private final long blockMillis;
+  private final long idleMillis;
+  private final int leaseSize;
+  private final Clock clock;
+  private final Cache<String, Lease> leases;
+  private final Queue<Refund> refunds = new ConcurrentLinkedQueue<>();
+
+  JdbcRateLimitStore(JdbcTemplate jdbcTemplate, String route, RateLimitProperties properties,
+                     RateLimitProperties.Route routeProperties, Clock clock) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.route = route;
+    this.periodMillis = routeProperties.period().toMillis();
+    this.emissionIntervalMillis = Math.max(1, periodMillis / routeProperties.limit());
+    this.blockMillis = routeProperties.blockDuration().toMillis();
+    this.idleMillis = properties.idleTimeout().toMillis();
+    this.leaseSize = Math.max(1, Math.min(properties.jdbc().leaseSize(), routeProperties.limit()));
+    this.clock = clock;
+    this.leases = Caffeine.newBuilder()
+            .maximumWeight(properties.maxMemory().toBytes())
+            .weigher((String key, Lease lease) -> ClientRateLimitCache.estimateEntryBytes(key))
+            .expireAfterWrite(properties.jdbc().leaseTtl())
+            .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+            .executor(Runnable::run)
+            .removalListener(this::collectRefund)
+            .build();
+  }
+
+  /**
+   * Tries to admit one request from the given client.
+   * <p>
+   * The request is served from the local lease of the client when it has tokens left;
+   * otherwise a new lease is taken from the database.
+   * </p>
+   *
+   * @param clientKey the key of the client
+   * @return true if the request is admitted, false otherwise
+   */
+  @Override
+  public boolean tryAcquire(String clientKey) {
+    long now = clock.millis();
+    Lease lease = leases.getIfPresent(clientKey);
+    if (lease != null) {
+      if (lease.tryTake()) {
+        return true;
+      }
+      if (now < lease.deniedUntil) {
+        return false;
+      }
+    }
+    try {
+      return acquireLease(clientKey, now);
+    } catch (DataAccessException e) {
+      logger.warn("Unable to check the rate limit of route {}, admitting the request", route, e);
+      return true;
+    }
+  }
+
+  /**
+   * Takes a new lease for the client from the database and admits the request if one was granted.
+   *
+   * @param clientKey the key of the client
+   * @param now       the current time in epoch milliseconds
+   * @return true if the request is admitted, false otherwise
+   */
+  private boolean acquireLease(String clientKey, long now) {
+    int granted = update(clientKey, now, leaseSize);
+    if (granted == 0 && leaseSize > 1) {
+      granted = update(clientKey, now, 1);
+    }
+    if (granted == 0 && insert(clientKey, now)) {
+      granted = leaseSize;
+    }
+    if (granted > 0) {
+      leases.put(clientKey, new Lease(granted - 1, now));
+      return true;
+    }
+    long deniedFor = emissionIntervalMillis;
+    if (blockMillis > 0 && block(clientKey, now)) {
+      deniedFor = blockMillis;
+    }
+    leases.put(clientKey, new Lease(0, now + deniedFor));
+    return false;
+  }
+
+  /**
+   * Advances the TAT of an existing client by the given number of tokens if the limit allows it.
+   *
+   * @param clientKey the key of the client
+   * @param now       the current time in epoch milliseconds
+   * @param tokens    the number of tokens requested
+   * @return the number of tokens granted, either all or none
+   */
+  private int update(String clientKey, long now, int tokens) {
+    long cost = tokens * emissionIntervalMillis;
+    int updated = jdbcTemplate.update(ACQUIRE_SQL, now, cost, route, clientKey, now, cost, now + periodMillis);
+    return updated == 1 ? tokens : 0;
+  }
+
+  /**
+   * Creates the row of a client seen for the first time, granting it a full lease.
+   *
+   * @param clientKey the key of the client
+   * @param now       the current time in epoch milliseconds
+   * @return true if the row was created, false if it already existed
+   */
+  private boolean insert(String clientKey, long now) {
+    return jdbcTemplate.update(INSERT_SQL, route, clientKey, now + leaseSize * emissionIntervalMillis) == 1;
+  }
+
+  /**
+   * Blocks the client by moving its TAT past the end of the block, unless it is already blocked.
+   *
+   * @param clientKey the key of the client
+   * @param now       the current time in epoch milliseconds
+   * @return true if the client was blocked by this call
+   */
+  private boolean block(String clientKey, long now) {
+    return jdbcTemplate.update(BLOCK_SQL, now + blockMillis + periodMillis, route, clientKey, now + periodMillis) == 1;
+  }
+
+  /**
+   * Credits back the unused tokens of expired leases in one batch and deletes the rows of idle clients.
+   */
+  @Override
+  public void flush() {
+    leases.cleanUp();
+    Map<String, Integer> unusedTokens = new HashMap<>();
+    for (Refund refund; (refund = refunds.poll()) != null; ) {
+      unusedTokens.merge(refund.clientKey(), refund.tokens(), Integer::sum);
+    }
+    try {
+      if (!unusedTokens.isEmpty()) {
+        List<Object[]> batch = new ArrayList<>(unusedTokens.size());
+        unusedTokens.forEach((clientKey, tokens) ->
+                batch.add(new Object[]{tokens * emissionIntervalMillis, route, clientKey}));
+        jdbcTemplate.batchUpdate(REFUND_SQL, batch);
+      }
+      jdbcTemplate.update(CLEANUP_SQL, route, clock.millis() - idleMillis);
+    } catch (DataAccessException e) {
+      logger.warn("Unable to flush the rate limit state of route {}", route, e);
+    }
+  }
+
+  /**
+   * Collects the unused tokens of a lease leaving the local cache.
+   *
+   * @param clientKey the key of the client
+   * @param lease     the lease
+   * @param cause     the reason of the removal
+   */
+  private void collectRefund(String clientKey, Lease lease, RemovalCause cause) {
+    if (clientKey == null || lease == null) {
+      return;
+    }
+    int unused = lease.drain();
+    if (unused > 0) {
+      refunds.add(new Refund(clientKey, unused));
+    }
+  }
+
+  /**
+   * Tokens granted to a client by the database and not yet used on this replica.
+   */
+  private static final class Lease {
+
+    private final AtomicInteger tokens;
+    private final long deniedUntil;
+
+    Lease(int tokens, long deniedUntil) {
+      this.tokens = new AtomicInteger(tokens);
+      this.deniedUntil = deniedUntil;
+    }
+
+    boolean tryTake() {
+      int current;
+      do {
+        current = tokens.get();
+        if (current == 0) {
+          return false;
+        }
+      } while (!tokens.compareAndSet(current, current - 1));
+      return true;
+    }
+
+    int drain() {
+      return tokens.getAndSet(0);
+    }
+  }
+
+  /**
+   * Unused tokens of a lease waiting to be credited back.
+   *
+   * @param clientKey the key of the client
+   * @param tokens    the number of unused tokens
+   */
+  private record Refund(String clientKey, int tokens) {
+  }
+}
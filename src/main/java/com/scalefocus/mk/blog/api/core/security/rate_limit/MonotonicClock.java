@@ -0,0 +1,25 @@
+package com.scalefocus.mk.blog.api.core.security.rate_limit;
+
+/**
+ * Monotonic clock used by the rate limiters.
+ * <p>
+ * Times are nanoseconds elapsed since this class was initialized, so they are never negative
+ * and are unaffected by wall-clock adjustments.
+ * </p>
+ */
+final class MonotonicClock {
+
+  private static final long ORIGIN = System.nanoTime();
+
+  private MonotonicClock() {
+  }
+
+  /**
+   * Returns the current monotonic time.
+   *
+   * @return the nanoseconds elapsed since the clock origin
+   */
+  static long now() {
+    return System.nanoTime() - ORIGIN;
+  }
+}
@@ -0,0 +1,42 @@
+package com.scalefocus.mk.blog.api.core.security.rate_limit;
+
+import java.time.Duration;
+
+/**
+ * Enum representing the available rate limiting algorithms.
+ * <p>
+ * This enum is used in the rate limit configuration to select the {@link RateLimiter}
+ * implementation applied to a route.
+ * </p>
+ */
+enum RateLimitAlgorithm {
+
+  /**
+   * Token bucket refilled at a constant rate, see {@link TokenBucketRateLimiter}.
+   */
+  TOKEN_BUCKET {
+    @Override
+    RateLimiter create(int limit, Duration period) {
+      return new TokenBucketRateLimiter(limit, period);
+    }
+  },
+
+  /**
+   * Generic Cell Rate Algorithm, see {@link GcraRateLimiter}.
+   */
+  GCRA {
+    @Override
+    RateLimiter create(int limit, Duration period) {
+      return new GcraRateLimiter(limit, period);
+    }
+  };
+
+  /**
+   * Creates a rate limiter admitting {@code limit} requests per {@code period}.
+   *
+   * @param limit  the number of requests admitted per period
+   * @param period the length of the period
+   * @return the rate limiter
+   */
+  abstract RateLimiter create(int limit, Duration period);
+}
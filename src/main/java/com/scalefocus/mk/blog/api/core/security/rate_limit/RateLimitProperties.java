@@ -0,0 +1,102 @@
+package com.scalefocus.mk.blog.api.core.security.rate_limit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration properties for rate limiting.
+ * <p>
+ * Routes are configured by name under {@code rate-limit.ip} for limits keyed on the client IP
+ * address and under {@code rate-limit.user} for limits keyed on the authenticated username,
+ * falling back to the IP address for anonymous requests. Every route applies its own limit to
+ * the requests matching its path patterns, so a request matching several routes is subject to
+ * each of them.
+ * </p>
+ * <p>
+ * The state of the clients is kept in memory by default; with {@code rate-limit.store=jdbc}
+ * it is shared by all replicas through the database.
+ * </p>
+ *
+ * @param store       the backend holding the state of the clients
+ * @param maxMemory   the estimated memory the tracked clients of a route may use
+ * @param idleTimeout the time after which the state of an idle client is discarded
+ * @param jdbc        the settings of the database backend
+ * @param ip          the routes limited per IP address
+ * @param user        the routes limited per user
+ */
+@ConfigurationProperties(prefix = "rate-limit")
+record RateLimitProperties(
+        @DefaultValue("memory") Store store,
+        @DefaultValue("16MB") DataSize maxMemory,
+        @DefaultValue("45m") Duration idleTimeout,
+        @DefaultValue Jdbc jdbc,
+        Map<String, Route> ip,
+        Map<String, Route> user) {
+
+  RateLimitProperties {
+    ip = ip == null ? Map.of() : ip;
+    user = user == null ? Map.of() : user;
+  }
+
+  /**
+   * Backends available for holding the state of the clients.
+   */
+  enum Store {
+
+    /**
+     * State kept in the local JVM, see {@link InMemoryRateLimitStore}.
+     */
+    MEMORY,
+
+    /**
+     * State shared between replicas through the database, see {@link JdbcRateLimitStore}.
+     */
+    JDBC
+  }
+
+  /**
+   * Settings of the database backend.
+   *
+   * @param leaseSize     the number of tokens a replica takes from the database at once
+   * @param leaseTtl      how long a replica keeps the tokens it took before crediting back the unused ones
+   * @param flushInterval the interval between two flushes of the unused tokens
+   */
+  record Jdbc(
+          @DefaultValue("5") int leaseSize,
+          @DefaultValue("1s") Duration leaseTtl,
+          @DefaultValue("1s") Duration flushInterval) {
+  }
+
+  /**
+   * Rate limit applied to the requests matching a set of path patterns.
+   *
+   * @param pathPatterns        the path patterns the limit applies to
+   * @param excludePathPatterns the path patterns excluded from the limit
+   * @param algorithm           the rate limiting algorithm
+   * @param limit               the number of requests admitted per period
+   * @param period              the length of the period
+   * @param blockDuration       how long a client is rejected after exceeding the limit, zero to only reject the excess requests
+   */
+  record Route(
+          @DefaultValue("/**") List<String> pathPatterns,
+          @DefaultValue List<String> excludePathPatterns,
+          @DefaultValue("gcra") RateLimitAlgorithm algorithm,
+          @DefaultValue("20") int limit,
+          @DefaultValue("20s") Duration period,
+          @DefaultValue("0s") Duration blockDuration) {
+
+    /**
+     * Creates the rate limiter configured for this route.
+     *
+     * @return the rate limiter
+     */
+    RateLimiter rateLimiter() {
+      return algorithm.create(limit, period);
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.scalefocus.mk.blog.api.core.security.rate_limit;
+
+/**
+ * Backend holding the rate limit state of the clients of a route.
+ * <p>
+ * A store admits or rejects the requests of a client against the limit of its route and
+ * applies the block penalty of the route to clients exceeding it. The
+ * {@link InMemoryRateLimitStore} keeps the state in the local JVM, while the
+ * {@link JdbcRateLimitStore} shares it between all replicas through the database.
+ * </p>
+ */
+interface RateLimitStore {
+
+  /**
+   * Tries to admit one request from the given client.
+   *
+   * @param clientKey the key of the client
+   * @return true if the request is admitted, false if it exceeds the limit
+   */
+  boolean tryAcquire(String clientKey);
+
+  /**
+   * Writes any locally buffered state to the backend.
+   * <p>
+   * Called periodically and on shutdown; stores without buffered state do nothing.
+   * </p>
+   */
+  default void flush() {
+  }
+}
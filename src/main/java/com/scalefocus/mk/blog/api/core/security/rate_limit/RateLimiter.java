@@ -0,0 +1,57 @@
+package com.scalefocus.mk.blog.api.core.security.rate_limit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limiting algorithm operating on a single primitive state value per client.
+ * <p>
+ * Implementations are stateless and thread-safe: the state of every client is a {@code long}
+ * kept by the caller, and each decision is a pure function of that state and the current time
+ * of the {@link MonotonicClock}. This lets callers update the state with a compare-and-set and
+ * keeps the hot path free of allocations.
+ * </p>
+ */
+interface RateLimiter {
+
+  /**
+   * Returned by {@link #tryAcquire(long, long)} when the request must be rejected.
+   */
+  long REJECTED = Long.MIN_VALUE;
+
+  /**
+   * Returns the state of a client that has not made any request yet.
+   *
+   * @param now the current monotonic time in nanoseconds
+   * @return the initial state
+   */
+  long initialState(long now);
+
+  /**
+   * Computes the state after admitting one request.
+   *
+   * @param state the current state of the client
+   * @param now   the current monotonic time in nanoseconds
+   * @return the new state, or {@link #REJECTED} if the request exceeds the limit
+   */
+  long tryAcquire(long state, long now);
+
+  /**
+   * Atomically admits one request against the given state holder.
+   *
+   * @param state the state holder of the client
+   * @param now   the current monotonic time in nanoseconds
+   * @return true if the request is admitted, false if it exceeds the limit
+   */
+  default boolean tryAcquire(AtomicLong state, long now) {
+    while (true) {
+      long current = state.get();
+      long next = tryAcquire(current, now);
+      if (next == REJECTED) {
+        return false;
+      }
+      if (state.compareAndSet(current, next)) {
+        return true;
+      }
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package com.scalefocus.mk.blog.api.core.security.rate_limit;
+
+import java.time.Duration;
+
+/**
+ * Token bucket rate limiter.
+ * <p>
+ * Each client has a bucket holding up to {@code limit} tokens that refills at {@code limit}
+ * tokens per period; every request takes one token. The state packs the time of the last refill,
+ * in microseconds, into the upper bits and the number of available tokens into the lower
+ * {@value #TOKEN_BITS} bits. Refills advance the refill time by whole token intervals, so partial
+ * intervals are carried over instead of being lost. Time differences are computed modulo the
+ * width of the time field, which keeps the arithmetic correct when the field wraps.
+ * </p>
+ */
+final class TokenBucketRateLimiter implements RateLimiter {
+
+  static final int TOKEN_BITS = 16;
+  private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+  private static final long TIME_MASK = (1L << (Long.SIZE - 1 - TOKEN_BITS)) - 1;
+
+  private final long capacity;
+  private final long refillIntervalMicros;
+
+  TokenBucketRateLimiter(int limit, Duration period) {
+    if (limit < 1 || limit > TOKEN_MASK) {
+      throw new IllegalArgumentException("Token bucket capacity must be between 1 and " + TOKEN_MASK + ": " + limit);
+    }
+    this.capacity = limit;
+    this.refillIntervalMicros = Math.max(1, period.toNanos() / 1_000 / limit);
+  }
+
+  @Override
+  public long initialState(long now) {
+    return pack(micros(now), capacity);
+  }
+
+  @Override
+  public long tryAcquire(long state, long now) {
+    long lastRefill = state >>> TOKEN_BITS;
+    long tokens = state & TOKEN_MASK;
+    long nowMicros = micros(now);
+    long refills = ((nowMicros - lastRefill) & TIME_MASK) / refillIntervalMicros;
+    if (refills > 0) {
+      if (tokens + refills >= capacity) {
+        tokens = capacity;
+        lastRefill = nowMicros;
+      } else {
+        tokens += refills;
+        lastRefill = (lastRefill + refills * refillIntervalMicros) & TIME_MASK;
+      }
+    }
+    return tokens == 0 ? REJECTED : pack(lastRefill, tokens - 1);
+  }
+
+  private static long micros(long nanos) {
+    return (nanos / 1_000) & TIME_MASK;
+  }
+
+  private static long pack(long refillMicros, long tokens) {
+    return (refillMicros << TOKEN_BITS) | tokens;
+  }
+}
@@ -1,9 +1,12 @@
 package com.scalefocus.mk.blog.api.shared.advice;
 
 import com.scalefocus.mk.blog.api.shared.exceptions.EntityPersistenceException;
+import com.scalefocus.mk.blog.api.shared.exceptions.InvalidRequestException;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -46,6 +49,22 @@ final class ControllerAdvice {
         return new ResponseEntity<>(e.getMessage(), e.getStatus());
     }
 
+    /**
+     * Handles InvalidRequestException.
+     * <p>
+     * This method returns a 400 Bad Request response when a request carries an invalid argument,
+     * such as a malformed pagination cursor. Other exceptions are not mapped to 400, so that the
+     * messages of the framework and of the database never reach the client.
+     * </p>
+     *
+     * @param e the InvalidRequestException
+     * @return a ResponseEntity with the exception message and HTTP status 400
+     */
+    @ExceptionHandler(InvalidRequestException.class)
+    ResponseEntity<String> invalidRequestException(final InvalidRequestException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Handles EntityNotFoundException.
      * <p>
@@ -60,4 +79,19 @@ final class ControllerAdvice {
         return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Handles failures to obtain a database connection.
+     * <p>
+     * This method returns a 503 Service Unavailable response when no connection could be taken
+     * from the pool in time, so that clients back off instead of seeing a server error.
+     * </p>
+     *
+     * @param e the CannotCreateTransactionException or DataAccessResourceFailureException
+     * @return a ResponseEntity with a message and HTTP status 503
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    ResponseEntity<String> databaseUnavailableException(final RuntimeException e) {
+        return new ResponseEntity<>("The database is busy, try again later.", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
 }
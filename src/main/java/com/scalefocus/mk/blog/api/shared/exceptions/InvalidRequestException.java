@@ -0,0 +1,31 @@
+package com.scalefocus.mk.blog.api.shared.exceptions;
+
+/**
+ * Exception thrown when a request carries an invalid argument.
+ * <p>
+ * This exception is used to reject values taken from the request, such as a malformed
+ * pagination cursor or a blank tag name, with 400 Bad Request. Its message is returned to the
+ * client, so it must only describe the rejected value.
+ * </p>
+ */
+public final class InvalidRequestException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidRequestException with the specified detail message.
+     *
+     * @param message the detail message explaining which value of the request is invalid
+     */
+    public InvalidRequestException(final String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new InvalidRequestException with the specified detail message and cause.
+     *
+     * @param message the detail message explaining which value of the request is invalid
+     * @param cause   the exception raised while parsing the value
+     */
+    public InvalidRequestException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,46 @@
+package com.scalefocus.mk.blog.api.shared.persistence;
+
+/**
+ * Marker of the database accesses of background work.
+ * <p>
+ * Requests that cannot get a permit of the {@link DatabaseBulkhead} within its maximum wait are
+ * rejected with 503 Service Unavailable, so that their clients can retry. Background work, such
+ * as writing queued changes behind, has no client to retry and its changes were already
+ * acknowledged, so rejecting it would lose them. Accesses made inside {@link #run(Runnable)}
+ * therefore wait for a permit for as long as it takes, in line with the requests, which only
+ * slows the background work down while the database is busy.
+ * </p>
+ */
+public final class BackgroundDatabaseAccess {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private BackgroundDatabaseAccess() {
+    }
+
+    /**
+     * Runs background work on the current thread, waiting for bulkhead permits without a limit.
+     *
+     * @param work the work to run
+     */
+    public static void run(Runnable work) {
+        Boolean previous = ACTIVE.get();
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            work.run();
+        } finally {
+            if (previous == null) {
+                ACTIVE.remove();
+            }
+        }
+    }
+
+    /**
+     * Tells whether the current thread runs background work.
+     *
+     * @return true inside {@link #run(Runnable)}
+     */
+    static boolean isActive() {
+        return ACTIVE.get() != null;
+    }
+}
@@ -0,0 +1,116 @@
+package com.scalefocus.mk.blog.api.shared.persistence;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hibernate second-level cache region factory backed by local Caffeine caches.
+ * <p>
+ * Every entity, collection and query results region is a Caffeine cache bounded to the number
+ * of entries set by the {@value #MAXIMUM_SIZE} property. The update timestamps region is left
+ * unbounded: it holds one entry per table, and evicting one would let stale query results be
+ * served. The caches live in this JVM only, so each application instance caches independently.
+ * </p>
+ */
+public final class CaffeineRegionFactory extends RegionFactoryTemplate {
+
+    /**
+     * Configuration property holding the maximum number of entries of every bounded region.
+     */
+    public static final String MAXIMUM_SIZE = "hibernate.cache.caffeine.maximum_size";
+
+    private static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private final Map<String, Cache<Object, Object>> caches = new ConcurrentHashMap<>();
+
+    private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+        Object configured = configValues.get(MAXIMUM_SIZE);
+        if (configured != null) {
+            maximumSize = Long.parseLong(configured.toString());
+        }
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        caches.values().forEach(Cache::invalidateAll);
+        caches.clear();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return new CaffeineStorageAccess(cache(regionConfig.getRegionName(), true));
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return new CaffeineStorageAccess(cache(regionName, true));
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        return new CaffeineStorageAccess(cache(regionName, false));
+    }
+
+    private Cache<Object, Object> cache(String regionName, boolean bounded) {
+        return caches.computeIfAbsent(qualify(regionName), name -> {
+            Caffeine<Object, Object> builder = Caffeine.newBuilder();
+            if (bounded) {
+                builder.maximumSize(maximumSize);
+            }
+            return builder.build();
+        });
+    }
+
+    /**
+     * Storage of a region in a Caffeine cache.
+     */
+    private record CaffeineStorageAccess(Cache<Object, Object> cache) implements DomainDataStorageAccess {
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return cache.getIfPresent(key);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            cache.put(key, value);
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return cache.asMap().containsKey(key);
+        }
+
+        @Override
+        public void evictData() {
+            cache.invalidateAll();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            cache.invalidate(key);
+        }
+
+        @Override
+        public void release() {
+            cache.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.scalefocus.mk.blog.api.shared.persistence;
+
+import com.scalefocus.mk.blog.api.shared.exceptions.EntityPersistenceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulkhead limiting the number of threads accessing the database at once.
+ * <p>
+ * With virtual threads, the number of requests handled concurrently is practically unbounded,
+ * while the connection pool is not. This bulkhead keeps a fair semaphore for reads and one for
+ * writes, sized below the pool, so that excess requests queue in order in front of the database
+ * instead of timing out on connections one after the other, and so that a burst of reads cannot
+ * starve writes or the other way round. Reads marked as {@link LongRunningRead}, which hold
+ * their connection for minutes, have a third, small semaphore of their own. The permits must
+ * leave room in the pool for the second connection a write may take for a nested transaction
+ * and for the accesses that are not guarded. A thread that cannot get a permit within the maximum
+ * wait is rejected with 503 Service Unavailable, unless it runs {@link BackgroundDatabaseAccess}
+ * work, which waits for as long as it takes.
+ * </p>
+ * <p>
+ * Permits are reentrant per thread: a thread already holding one, for example inside a
+ * transaction, does not take another for the repositories it calls. The wait for a permit,
+ * the number of waiting threads, the available permits and the rejections are published as
+ * "blog.db.bulkhead.*" meters, next to the "hikaricp.connections.*" meters of the pool itself.
+ * </p>
+ */
+@Component
+final class DatabaseBulkhead {
+
+    static final String WAIT_METRIC = "blog.db.bulkhead.wait";
+
+    static final String PENDING_METRIC = "blog.db.bulkhead.pending";
+
+    static final String AVAILABLE_METRIC = "blog.db.bulkhead.available";
+
+    static final String REJECTED_METRIC = "blog.db.bulkhead.rejected";
+
+    /**
+     * The kind of database access a permit is taken for.
+     */
+    enum Access {
+        READ,
+        WRITE,
+        LONG_READ
+    }
+
+    /**
+     * An invocation guarded by the bulkhead.
+     */
+    @FunctionalInterface
+    interface Invocation {
+
+        Object proceed() throws Throwable;
+    }
+
+    private final Map<Access, Compartment> compartments = new EnumMap<>(Access.class);
+
+    private final long maxWaitNanos;
+
+    private final ThreadLocal<Access> held = new ThreadLocal<>();
+
+    DatabaseBulkhead(@Value("${blog.db.bulkhead.read-permits:8}") int readPermits,
+                     @Value("${blog.db.bulkhead.write-permits:3}") int writePermits,
+                     @Value("${blog.db.bulkhead.long-read-permits:2}") int longReadPermits,
+                     @Value("${blog.db.bulkhead.max-wait:500ms}") Duration maxWait,
+                     MeterRegistry meterRegistry) {
+        this.maxWaitNanos = maxWait.toNanos();
+        compartments.put(Access.READ, new Compartment(Access.READ, readPermits, meterRegistry));
+        compartments.put(Access.WRITE, new Compartment(Access.WRITE, writePermits, meterRegistry));
+        compartments.put(Access.LONG_READ, new Compartment(Access.LONG_READ, longReadPermits, meterRegistry));
+    }
+
+    /**
+     * Runs an invocation once a permit for the given kind of access is available.
+     *
+     * @param access     the kind of database access of the invocation
+     * @param invocation the invocation to run
+     * @return the result of the invocation
+     * @throws EntityPersistenceException if no permit became available within the maximum wait, or
+     *                                    background work was interrupted while waiting
+     * @throws Throwable                  anything thrown by the invocation
+     */
+    Object execute(Access access, Invocation invocation) throws Throwable {
+        if (held.get() != null) {
+            return invocation.proceed();
+        }
+        Compartment compartment = compartments.get(access);
+        compartment.acquire();
+        held.set(access);
+        try {
+            return invocation.proceed();
+        } finally {
+            held.remove();
+            compartment.semaphore.release();
+        }
+    }
+
+    private final class Compartment {
+
+        private final String name;
+
+        private final Semaphore semaphore;
+
+        private final Timer waitTimer;
+
+        private final Counter rejectedCounter;
+
+        private Compartment(Access access, int permits, MeterRegistry meterRegistry) {
+            this.name = access.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            this.semaphore = new Semaphore(permits, true);
+            this.waitTimer = Timer.builder(WAIT_METRIC).tag("access", name).register(meterRegistry);
+            this.rejectedCounter = Counter.builder(REJECTED_METRIC).tag("access", name).register(meterRegistry);
+            Gauge.builder(PENDING_METRIC, semaphore, Semaphore::getQueueLength)
+                    .tag("access", name)
+                    .register(meterRegistry);
+            Gauge.builder(AVAILABLE_METRIC, semaphore, Semaphore::availablePermits)
+                    .tag("access", name)
+                    .register(meterRegistry);
+        }
+
+        private void acquire() {
+            long start = System.nanoTime();
+            boolean acquired;
+            try {
+                if (BackgroundDatabaseAccess.isActive()) {
+                    semaphore.acquire();
+                    acquired = true;
+                } else {
+                    acquired = semaphore.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                rejectedCounter.increment();
+                throw new EntityPersistenceException("The database is busy, try again later.",
+                        HttpStatus.SERVICE_UNAVAILABLE);
+            }
+        }
+    }
+}
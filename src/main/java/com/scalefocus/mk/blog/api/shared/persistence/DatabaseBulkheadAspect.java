@@ -0,0 +1,77 @@
+package com.scalefocus.mk.blog.api.shared.persistence;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Method;
+import java.util.regex.Pattern;
+
+/**
+ * Aspect putting the {@link DatabaseBulkhead} in front of every access to the database.
+ * <p>
+ * It guards the transactional methods of the application, the repositories and the
+ * PersistenceService. It runs before the transaction interceptor, so that a permit is taken
+ * before a connection is. An access is a long read if it is marked as a {@link LongRunningRead},
+ * a read if it is transactional and read-only or, when it declares no transaction, if its name
+ * starts like a query method; everything else is a write.
+ * </p>
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+final class DatabaseBulkheadAspect {
+
+    private static final Pattern READ_METHOD = Pattern.compile("(find|exists|count|get|stream|search|forEach)");
+
+    private final DatabaseBulkhead bulkhead;
+
+    DatabaseBulkheadAspect(DatabaseBulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    @Pointcut("within(com.scalefocus.mk.blog.api..*) && "
+            + "(@annotation(org.springframework.transaction.annotation.Transactional) "
+            + "|| @within(org.springframework.transaction.annotation.Transactional))")
+    void transactionalMethod() {
+    }
+
+    @Pointcut("this(org.springframework.data.repository.Repository) "
+            + "|| (within(com.scalefocus.mk.blog.api..*) && @within(org.springframework.stereotype.Repository))")
+    void repositoryMethod() {
+    }
+
+    @Pointcut("execution(public * com.scalefocus.mk.blog.api.shared.persistence.PersistenceService.*(..)) "
+            + "&& !execution(* com.scalefocus.mk.blog.api.shared.persistence.PersistenceService.evict*(..))")
+    void persistenceMethod() {
+    }
+
+    @Around("transactionalMethod() || repositoryMethod() || persistenceMethod()")
+    Object guard(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return bulkhead.execute(accessOf(method), joinPoint::proceed);
+    }
+
+    static DatabaseBulkhead.Access accessOf(Method method) {
+        if (AnnotatedElementUtils.hasAnnotation(method, LongRunningRead.class)) {
+            return DatabaseBulkhead.Access.LONG_READ;
+        }
+        Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(method, Transactional.class);
+        if (transactional == null) {
+            transactional = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), Transactional.class);
+        }
+        if (transactional != null) {
+            return transactional.readOnly() ? DatabaseBulkhead.Access.READ : DatabaseBulkhead.Access.WRITE;
+        }
+        return READ_METHOD.matcher(method.getName()).lookingAt()
+                ? DatabaseBulkhead.Access.READ
+                : DatabaseBulkhead.Access.WRITE;
+    }
+}
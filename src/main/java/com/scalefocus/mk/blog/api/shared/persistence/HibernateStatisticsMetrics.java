@@ -0,0 +1,68 @@
+package com.scalefocus.mk.blog.api.shared.persistence;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the Hibernate statistics as Micrometer meters.
+ * <p>
+ * The meters count the JDBC statements, flushes, transactions, entity operations and
+ * second-level cache requests of the whole session factory, so that the effect of batching
+ * and of grouping operations into units of work can be observed. Nothing is published unless
+ * the "hibernate.generate_statistics" property is enabled.
+ * </p>
+ */
+@Component
+final class HibernateStatisticsMetrics implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    HibernateStatisticsMetrics(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        counter(registry, statistics, "hibernate.statements", "status", "prepared",
+                Statistics::getPrepareStatementCount);
+        counter(registry, statistics, "hibernate.statements", "status", "closed",
+                Statistics::getCloseStatementCount);
+        counter(registry, statistics, "hibernate.flushes", null, null, Statistics::getFlushCount);
+        counter(registry, statistics, "hibernate.transactions", "result", "success",
+                Statistics::getSuccessfulTransactionCount);
+        counter(registry, statistics, "hibernate.transactions", "result", "failure",
+                s -> s.getTransactionCount() - s.getSuccessfulTransactionCount());
+        counter(registry, statistics, "hibernate.entities", "operation", "insert",
+                Statistics::getEntityInsertCount);
+        counter(registry, statistics, "hibernate.entities", "operation", "update",
+                Statistics::getEntityUpdateCount);
+        counter(registry, statistics, "hibernate.entities", "operation", "delete",
+                Statistics::getEntityDeleteCount);
+        counter(registry, statistics, "hibernate.entities", "operation", "load",
+                Statistics::getEntityLoadCount);
+        counter(registry, statistics, "hibernate.second.level.cache.requests", "result", "hit",
+                Statistics::getSecondLevelCacheHitCount);
+        counter(registry, statistics, "hibernate.second.level.cache.requests", "result", "miss",
+                Statistics::getSecondLevelCacheMissCount);
+    }
+
+    private static void counter(MeterRegistry registry, Statistics statistics, String name, String tagKey,
+                                String tagValue, ToDoubleFunction<Statistics> count) {
+        FunctionCounter.Builder<Statistics> builder = FunctionCounter.builder(name, statistics, count);
+        if (tagKey != null) {
+            builder.tag(tagKey, tagValue);
+        }
+        builder.register(registry);
+    }
+}
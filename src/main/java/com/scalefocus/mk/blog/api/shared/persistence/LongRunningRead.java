@@ -0,0 +1,20 @@
+package com.scalefocus.mk.blog.api.shared.persistence;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read that holds its connection for a long time, such as a streaming export.
+ * <p>
+ * The {@link DatabaseBulkhead} gives such reads a small compartment of their own, so that a few
+ * of them cannot take the permits, and the connections, of the short reads of requests.
+ * </p>
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LongRunningRead {
+}
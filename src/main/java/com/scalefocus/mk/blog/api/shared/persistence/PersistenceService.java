@@ -1,18 +1,40 @@
 package com.scalefocus.mk.blog.api.shared.persistence;
 
+import com.scalefocus.mk.blog.api.shared.exceptions.EntityPersistenceException;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Service for handling entity persistence operations.
  * <p>
- * This service provides methods to persist, update, and remove entities in the database.
- * It uses the EntityManager to interact with the persistence context and handles
- * transactions for these operations.
+ * This service provides methods to persist, update, and remove entities in the database, and to
+ * group any number of such operations into one unit of work. A unit of work runs in a single
+ * transaction and persistence context and is flushed once at its end, so that Hibernate orders
+ * the statements by entity and sends them as JDBC batches, and the transaction is committed once.
+ * Operations called outside of a unit of work form a unit of work of their own. Failures are
+ * rethrown as {@link EntityPersistenceException}. Hibernate keeps the second-level cache up to
+ * date for these operations; changes made through JDBC are evicted from it explicitly.
  * </p>
  */
 @Service
@@ -23,75 +45,180 @@ public class PersistenceService {
 
     private static final Logger logger = LoggerFactory.getLogger(PersistenceService.class);
 
+    private final TransactionTemplate transactionTemplate;
+
+    public PersistenceService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
     /**
-     * Persists a given entity in the database.
+     * Runs the given work as one unit of work.
      * <p>
-     * This method attempts to persist the provided entity using the EntityManager.
-     * If the operation is successful, it logs the action and returns true. Otherwise,
-     * it logs the error and returns false.
+     * The work joins the current transaction if there is one. Otherwise, a new transaction is
+     * started, the persistence context is flushed once the work is done and the transaction is
+     * committed. If the work, the flush or the commit fails, the transaction is rolled back and
+     * persistence failures are rethrown as an EntityPersistenceException: with status 409
+     * Conflict if a constraint was violated, even if the violation is wrapped in a commit
+     * failure, and 500 Internal Server Error otherwise. Their messages are fixed per status and
+     * reach the client, so the failure itself, which may describe the schema, is only logged. An
+     * EntityNotFoundException and the other exceptions of the work are rethrown unchanged.
      * </p>
      *
+     * @param work the operations to run
+     * @param <R>  the type of the result of the work
+     * @return the result of the work
+     * @throws EntityPersistenceException if the operations could not be persisted
+     */
+    public <R> R inUnitOfWork(Supplier<R> work) {
+        try {
+            return transactionTemplate.execute(status -> {
+                R result = work.get();
+                if (status.isNewTransaction()) {
+                    em.flush();
+                }
+                return result;
+            });
+        } catch (EntityNotFoundException e) {
+            throw e;
+        } catch (PersistenceException | DataAccessException | TransactionException e) {
+            logger.error("Could not persist changes", e);
+            HttpStatus status = statusOf(e);
+            throw new EntityPersistenceException(
+                    status == HttpStatus.CONFLICT ? "Title already exists." : "Could not persist changes.", status);
+        }
+    }
+
+    /**
+     * Persists a given entity in the database.
+     *
      * @param entity the entity to be persisted
      * @param <T>    the type of the entity, which must implement EntityMarker
-     * @return true if the entity was successfully persisted, false otherwise
+     * @throws EntityPersistenceException if the entity could not be persisted
      */
-    @Transactional
-    public <T extends EntityMarker> boolean persist(T entity) {
-        try {
+    public <T extends EntityMarker> void persist(T entity) {
+        inUnitOfWork(() -> {
             em.persist(entity);
-            logger.info("Persisted entity: {}", entity);
-            return true;
-        } catch (Exception e) {
-            logger.error(e.getMessage());
-            return false;
-        }
+            logger.debug("Persisted entity: {}", entity);
+            return entity;
+        });
+    }
+
+    /**
+     * Persists the given entities in the database in a single unit of work.
+     * <p>
+     * The inserts are sent as JDBC batches of the configured batch size. If any entity cannot
+     * be persisted, none of them is.
+     * </p>
+     *
+     * @param entities the entities to be persisted
+     * @param <T>      the type of the entities, which must implement EntityMarker
+     * @throws EntityPersistenceException if the entities could not be persisted
+     */
+    public <T extends EntityMarker> void persistAll(List<T> entities) {
+        inUnitOfWork(() -> {
+            entities.forEach(em::persist);
+            logger.debug("Persisted {} entities", entities.size());
+            return entities;
+        });
     }
 
     /**
      * Updates a given entity in the database.
      * <p>
-     * This method attempts to merge the provided entity using the EntityManager.
-     * If the operation is successful, it logs the action and returns true. Otherwise,
-     * it logs the error and returns false.
+     * The state of the entity is merged into the persistence context.
      * </p>
      *
      * @param entity the entity to be updated
      * @param <T>    the type of the entity, which must implement EntityMarker
-     * @return true if the entity was successfully updated, false otherwise
+     * @return the managed instance of the entity
+     * @throws EntityPersistenceException if the entity could not be updated
      */
-    @Transactional
-    public <T extends EntityMarker> boolean update(T entity) {
-        try {
-            em.merge(entity);
-            logger.info("Merged entity: {}", entity);
-            return true;
-        } catch (Exception e) {
-            logger.error(e.getMessage());
-            return false;
-        }
+    public <T extends EntityMarker> T update(T entity) {
+        return inUnitOfWork(() -> {
+            T merged = em.merge(entity);
+            logger.debug("Merged entity: {}", entity);
+            return merged;
+        });
     }
 
     /**
      * Removes a given entity from the database.
      * <p>
-     * This method attempts to remove the provided entity using the EntityManager.
-     * If the operation is successful, it logs the action and returns true. Otherwise,
-     * it logs the error and returns false.
+     * Detached entities are merged into the persistence context before they are removed.
      * </p>
      *
      * @param entity the entity to be removed
      * @param <T>    the type of the entity, which must implement EntityMarker
-     * @return true if the entity was successfully removed, false otherwise
+     * @throws EntityPersistenceException if the entity could not be removed
      */
-    @Transactional
-    public <T extends EntityMarker> boolean remove(T entity) {
-        try {
-            em.remove(entity);
-            logger.info("Removed entity: {}", entity);
-            return true;
-        } catch (Exception e) {
-            logger.error(e.getMessage());
-            return false;
+    public <T extends EntityMarker> void remove(T entity) {
+        inUnitOfWork(() -> {
+            em.remove(em.contains(entity) ? entity : em.merge(entity));
+            logger.debug("Removed entity: {}", entity);
+            return entity;
+        });
+    }
+
+    /**
+     * Evicts cached entities, and the cached query results, that were changed without the EntityManager.
+     * <p>
+     * Statements issued through JDBC bypass Hibernate, which therefore cannot invalidate the
+     * second-level cache for them. This method evicts the given entities and all the cached query
+     * results. Inside a transaction, the eviction is repeated once the transaction commits.
+     * </p>
+     *
+     * @param entityType the type of the entities that changed
+     * @param ids        the identifiers of the entities that changed
+     */
+    public void evictEntities(Class<? extends EntityMarker> entityType, Collection<?> ids) {
+        Cache cache = em.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        evict(() -> {
+            ids.forEach(id -> cache.evictEntityData(entityType, id));
+            cache.evictQueryRegions();
+        });
+    }
+
+    /**
+     * Evicts cached collections, and the cached query results, that were changed without the EntityManager.
+     * <p>
+     * Statements issued through JDBC bypass Hibernate, which therefore cannot invalidate the
+     * second-level cache for them. This method evicts the given collections of the given owners
+     * and all the cached query results. Inside a transaction, the eviction is repeated once the
+     * transaction commits, so that data read concurrently before the commit is not kept.
+     * </p>
+     *
+     * @param ownerType  the type of the entities owning the collection
+     * @param collection the name of the collection property
+     * @param ownerIds   the identifiers of the owners whose collection changed
+     */
+    public void evictCollections(Class<? extends EntityMarker> ownerType, String collection, Collection<?> ownerIds) {
+        Cache cache = em.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        String role = ownerType.getName() + "." + collection;
+        evict(() -> {
+            ownerIds.forEach(ownerId -> cache.evictCollectionData(role, ownerId));
+            cache.evictQueryRegions();
+        });
+    }
+
+    private static HttpStatus statusOf(RuntimeException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException || cause instanceof DataIntegrityViolationException
+                    || cause instanceof SQLIntegrityConstraintViolationException) {
+                return HttpStatus.CONFLICT;
+            }
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    private static void evict(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
         }
     }
 }
@@ -0,0 +1,92 @@
+package com.scalefocus.mk.blog.api.shared.persistence;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.scalefocus.mk.blog.api.shared.auth.AuthService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Tracker of the users who wrote recently, whose reads must see their own writes.
+ * <p>
+ * Replicas apply the writes of the primary with a lag. A user who writes and then reads within
+ * the read-your-writes window is served by the primary, so that they never miss their own
+ * change; other users keep reading from the replicas. Loads of shared caches, marked as
+ * {@link SharedCacheLoad}, are served by the primary within the window after a write of any
+ * user, so that a cache evicted by a write is not filled again with the data from before it.
+ * Inside a transaction, the write is recorded again once it commits, so that the window starts
+ * when the write becomes visible. A window of zero disables the tracking.
+ * </p>
+ */
+@Component
+public final class ReadYourWrites {
+
+    private final AuthService authService;
+
+    private final Cache<String, Boolean> writers;
+
+    private final long windowNanos;
+
+    /**
+     * The time of the last write of any user, as given by {@link System#nanoTime()}.
+     */
+    private volatile long lastWrite;
+
+    ReadYourWrites(AuthService authService,
+                   @Value("${blog.datasource.read-your-writes-window:5s}") Duration window,
+                   @Value("${blog.datasource.read-your-writes-max-users:100000}") long maxUsers) {
+        this.authService = authService;
+        this.writers = window.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxUsers)
+                .build();
+        this.windowNanos = window.toNanos();
+        this.lastWrite = System.nanoTime() - windowNanos;
+    }
+
+    /**
+     * Records a write of the current user, whose reads go to the primary for the window.
+     */
+    public void recordWrite() {
+        if (writers == null) {
+            return;
+        }
+        String username = authService.getCurrentUsername();
+        Runnable record = () -> {
+            lastWrite = System.nanoTime();
+            if (username != null) {
+                writers.put(username, Boolean.TRUE);
+            }
+        };
+        record.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Tells whether the reads of the current thread must go to the primary.
+     *
+     * @return true if the current user wrote within the window, or if a shared cache is loaded
+     * within the window after any write
+     */
+    boolean requiresPrimary() {
+        if (writers == null) {
+            return false;
+        }
+        if (SharedCacheLoad.isActive() && System.nanoTime() - lastWrite < windowNanos) {
+            return true;
+        }
+        String username = authService.getCurrentUsername();
+        return username != null && writers.getIfPresent(username) != null;
+    }
+}
@@ -0,0 +1,152 @@
+package com.scalefocus.mk.blog.api.shared.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Pool of the read replicas of the database.
+ * <p>
+ * Connections are handed out round-robin over the replicas that passed their last health check,
+ * which runs periodically in the background. A replica failing to hand out a connection is
+ * marked unhealthy until the next check passes, and the next one is tried. When no replica is
+ * healthy, or when the current user wrote within the read-your-writes window, or when a shared
+ * cache is loaded within that window after any write, connections come from the primary instead.
+ * </p>
+ */
+final class ReplicaPool implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaPool.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final List<DataSource> replicas;
+
+    /**
+     * The health of every replica, 1 if healthy and 0 otherwise.
+     */
+    private final AtomicIntegerArray healthy;
+
+    private final ReadYourWrites readYourWrites;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private ScheduledExecutorService healthChecker;
+
+    ReplicaPool(List<DataSource> replicas, ReadYourWrites readYourWrites) {
+        this.replicas = List.copyOf(replicas);
+        this.healthy = new AtomicIntegerArray(replicas.size());
+        this.readYourWrites = readYourWrites;
+        for (int i = 0; i < replicas.size(); i++) {
+            healthy.set(i, 1);
+        }
+    }
+
+    /**
+     * Tells whether there are no replicas to route to.
+     *
+     * @return true if no replica is configured
+     */
+    boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+
+    /**
+     * Returns a data source handing out connections of the replicas, or of the given primary.
+     *
+     * @param primary the data source of the primary
+     * @return the read-only data source
+     */
+    DataSource readOnlyDataSource(DataSource primary) {
+        return new AbstractDataSource() {
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                return ReplicaPool.this.getConnection(primary);
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return getConnection();
+            }
+        };
+    }
+
+    /**
+     * Starts checking the health of the replicas periodically.
+     *
+     * @param interval the interval between two checks
+     */
+    void startHealthChecks(Duration interval) {
+        healthChecker = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("replica-health-check")
+                .daemon()
+                .factory());
+        healthChecker.scheduleWithFixedDelay(this::checkHealth,
+                interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Checks whether every replica hands out a valid connection.
+     */
+    void checkHealth() {
+        for (int i = 0; i < replicas.size(); i++) {
+            boolean valid;
+            try (Connection connection = replicas.get(i).getConnection()) {
+                valid = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                valid = false;
+            }
+            setHealthy(i, valid);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (DataSource replica : replicas) {
+            if (replica instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private Connection getConnection(DataSource primary) throws SQLException {
+        if (!readYourWrites.requiresPrimary()) {
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int offset = 0; offset < replicas.size(); offset++) {
+                int i = (start + offset) % replicas.size();
+                if (healthy.get(i) == 0) {
+                    continue;
+                }
+                try {
+                    return replicas.get(i).getConnection();
+                } catch (SQLException e) {
+                    setHealthy(i, false);
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    private void setHealthy(int replica, boolean valid) {
+        if (healthy.getAndSet(replica, valid ? 1 : 0) != (valid ? 1 : 0)) {
+            logger.warn("Replica {} is now {}", replica, valid ? "healthy" : "unhealthy, reading from the others");
+        }
+    }
+}
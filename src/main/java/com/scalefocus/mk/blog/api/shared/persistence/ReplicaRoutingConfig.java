@@ -0,0 +1,130 @@
+package com.scalefocus.mk.blog.api.shared.persistence;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the routing of read-only transactions to the read replicas.
+ * <p>
+ * When {@code blog.datasource.replicas.urls} lists replicas, the data source of the application
+ * is wrapped in a {@link LazyConnectionDataSourceProxy}, which fetches a connection only on the
+ * first statement, once the transaction has marked it read-only or not. Read-only transactions,
+ * such as those of the repositories, then read from the {@link ReplicaPool}, and every other
+ * connection writes to the primary. Replicas share the credentials of the primary and publish
+ * their own "hikaricp.*" meters.
+ * </p>
+ * <p>
+ * The Hibernate second-level cache is disabled when replicas are configured. Its entries are
+ * filled by any read, with no way to tell which ones read shortly after a write, and they do not
+ * expire, so an entry filled from a lagging replica would stay stale until the next write of
+ * that entity. The replicas take over the load the cache took off the primary.
+ * </p>
+ */
+@Configuration
+class ReplicaRoutingConfig {
+
+    /**
+     * Creates the pool of the read replicas, empty if none is configured.
+     *
+     * @return the replica pool
+     */
+    @Bean(destroyMethod = "close")
+    ReplicaPool replicaPool(DataSourceProperties properties, ReadYourWrites readYourWrites, MeterRegistry meterRegistry,
+                            @Value("${blog.datasource.replicas.urls:}") List<String> urls,
+                            @Value("${blog.datasource.replicas.maximum-pool-size:10}") int maximumPoolSize,
+                            @Value("${blog.datasource.replicas.connection-timeout:1s}") Duration connectionTimeout,
+                            @Value("${blog.datasource.replicas.health-check-interval:5s}") Duration healthCheckInterval) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .build();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replica.setInitializationFailTimeout(-1);
+            replica.setReadOnly(true);
+            replica.setMetricRegistry(meterRegistry);
+            replicas.add(replica);
+        }
+        ReplicaPool pool = new ReplicaPool(replicas, readYourWrites);
+        if (!pool.isEmpty()) {
+            pool.startHealthChecks(healthCheckInterval);
+        }
+        return pool;
+    }
+
+    /**
+     * Disables the second-level and query caches of Hibernate when replicas are configured.
+     *
+     * @param urls the JDBC URLs of the read replicas
+     * @return the Hibernate properties customizer
+     */
+    @Bean
+    HibernatePropertiesCustomizer replicaCacheCustomizer(@Value("${blog.datasource.replicas.urls:}") List<String> urls) {
+        return properties -> {
+            if (!urls.isEmpty()) {
+                properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+                properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+            }
+        };
+    }
+
+    /**
+     * Routes the read-only connections of the data source of the application to the replicas.
+     * <p>
+     * It runs before the post processors without an order, so that those wrapping the data source
+     * see every statement, whichever database runs it.
+     * </p>
+     *
+     * @param replicaPool the pool of the read replicas
+     * @return the bean post processor
+     */
+    @Bean
+    static BeanPostProcessor replicaRoutingPostProcessor(ObjectProvider<ReplicaPool> replicaPool) {
+        return new ReplicaRoutingPostProcessor(replicaPool);
+    }
+
+    /**
+     * Wraps the data source in a lazy proxy routing its read-only connections to the replicas.
+     */
+    private static final class ReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<ReplicaPool> replicaPool;
+
+        private ReplicaRoutingPostProcessor(ObjectProvider<ReplicaPool> replicaPool) {
+            this.replicaPool = replicaPool;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource primary) || replicaPool.getObject().isEmpty()) {
+                return bean;
+            }
+            LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+            routing.setReadOnlyDataSource(replicaPool.getObject().readOnlyDataSource(primary));
+            return routing;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.scalefocus.mk.blog.api.shared.persistence;
+
+import java.util.function.Supplier;
+
+/**
+ * Marker of the reads whose results are cached and served to every user.
+ * <p>
+ * Replicas apply the writes of the primary with a lag, so a read from a replica shortly after a
+ * write may return the data from before it. For the reads of a single user this is taken care
+ * of by {@link ReadYourWrites}; a read filling a shared cache, however, would keep the stale
+ * data for everyone until the entry expires, under a version that already announces the write.
+ * Reads made inside {@link #load(Supplier)} therefore go to the primary within the
+ * read-your-writes window after any write of this instance.
+ * </p>
+ */
+public final class SharedCacheLoad {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private SharedCacheLoad() {
+    }
+
+    /**
+     * Runs a load whose result is cached for every user.
+     *
+     * @param loader the load to run
+     * @param <T>    the type of the loaded value
+     * @return the loaded value
+     */
+    public static <T> T load(Supplier<T> loader) {
+        Boolean previous = ACTIVE.get();
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            return loader.get();
+        } finally {
+            if (previous == null) {
+                ACTIVE.remove();
+            }
+        }
+    }
+
+    /**
+     * Tells whether the current thread loads a value of a shared cache.
+     *
+     * @return true inside {@link #load(Supplier)}
+     */
+    static boolean isActive() {
+        return ACTIVE.get() != null;
+    }
+}
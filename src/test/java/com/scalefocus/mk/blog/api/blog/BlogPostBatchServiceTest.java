@@ -0,0 +1,145 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.scalefocus.mk.blog.api.shared.auth.AuthService;
+import com.scalefocus.mk.blog.api.shared.exceptions.EntityPersistenceException;
+import com.scalefocus.mk.blog.api.shared.exceptions.InvalidRequestException;
+import com.scalefocus.mk.blog.api.shared.persistence.PersistenceService;
+import com.scalefocus.mk.blog.api.shared.persistence.ReadYourWrites;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link BlogPostBatchService} class.
+ * <p>
+ * This class uses Mockito to mock dependencies and test the functionality of the BlogPostBatchService class.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+final class BlogPostBatchServiceTest {
+
+    private static final String MOCKITO_USER = "Mockito";
+    private static final int CHUNK_SIZE = 2;
+
+    @Mock
+    private BlogPostRepository blogPostRepository;
+
+    @Mock
+    private AuthService authService;
+
+    @Mock
+    private PersistenceService persistenceService;
+
+    @Mock
+    private BlogPostMapper blogPostMapper;
+
+    @Mock
+    private ReadYourWrites readYourWrites;
+
+    private BlogPostBatchService blogPostBatchService;
+
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        BlogPostCache blogPostCache = new BlogPostCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        blogPostBatchService = new BlogPostBatchService(blogPostRepository, persistenceService, blogPostMapper,
+                authService, blogPostCache, readYourWrites, CHUNK_SIZE, 5);
+        lenient().when(authService.getCurrentUsername()).thenReturn(MOCKITO_USER);
+        lenient().when(blogPostMapper.blogPostDtoToEntity(any())).thenAnswer(invocation -> {
+            BlogPostDto blogPostDto = invocation.getArgument(0);
+            BlogPost blogPost = new BlogPost();
+            blogPost.setTitle(blogPostDto.title());
+            blogPost.setText(blogPostDto.text());
+            return blogPost;
+        });
+    }
+
+    @Test
+    void createBlogPostsInChunks() {
+        when(blogPostRepository.findExistingTitles(anyList())).thenReturn(Set.of());
+        doAnswer(invocation -> assignIds(invocation.getArgument(0))).when(persistenceService).persistAll(anyList());
+
+        BlogPostBatchResult result = blogPostBatchService.createBlogPosts(List.of(
+                new BlogPostDto("Title 1", "Text"),
+                new BlogPostDto("Title 2", "Text"),
+                new BlogPostDto("Title 3", "Text")));
+
+        assertEquals(3, result.created());
+        assertEquals(0, result.rejected());
+        assertEquals(List.of(1, 2, 3), result.items().stream().map(BlogPostBatchItem::id).toList());
+        verify(blogPostRepository, times(2)).findExistingTitles(anyList());
+        verify(persistenceService, times(2)).persistAll(anyList());
+        verify(authService, times(1)).getCurrentUsername();
+    }
+
+    @Test
+    void createBlogPostsRejectsInvalidAndDuplicateTitles() {
+        when(blogPostRepository.findExistingTitles(anyList())).thenReturn(Set.of("existing title"));
+        doAnswer(invocation -> assignIds(invocation.getArgument(0))).when(persistenceService).persistAll(anyList());
+        List<BlogPostDto> blogPostDtos = new ArrayList<>();
+        blogPostDtos.add(new BlogPostDto("Existing Title", "Text"));
+        blogPostDtos.add(new BlogPostDto("New Title", "Text"));
+        blogPostDtos.add(new BlogPostDto("new title", "Text"));
+        blogPostDtos.add(new BlogPostDto(null, "Text"));
+        blogPostDtos.add(null);
+
+        BlogPostBatchResult result = blogPostBatchService.createBlogPosts(blogPostDtos);
+
+        assertEquals(List.of(
+                BlogPostBatchItem.Status.TITLE_EXISTS,
+                BlogPostBatchItem.Status.CREATED,
+                BlogPostBatchItem.Status.DUPLICATE_IN_BATCH,
+                BlogPostBatchItem.Status.INVALID,
+                BlogPostBatchItem.Status.INVALID),
+                result.items().stream().map(BlogPostBatchItem::status).toList());
+        verify(persistenceService, times(1)).persistAll(anyList());
+    }
+
+    @Test
+    void createBlogPostsReportsFailedChunk() {
+        when(blogPostRepository.findExistingTitles(anyList())).thenReturn(Set.of());
+        doThrow(new EntityPersistenceException("Could not persist changes", HttpStatus.INTERNAL_SERVER_ERROR))
+                .doAnswer(invocation -> assignIds(invocation.getArgument(0)))
+                .when(persistenceService).persistAll(anyList());
+
+        BlogPostBatchResult result = blogPostBatchService.createBlogPosts(List.of(
+                new BlogPostDto("Title 1", "Text"),
+                new BlogPostDto("Title 2", "Text"),
+                new BlogPostDto("Title 3", "Text")));
+
+        assertEquals(1, result.created());
+        assertEquals(BlogPostBatchItem.Status.FAILED, result.items().get(0).status());
+        assertEquals(BlogPostBatchItem.Status.FAILED, result.items().get(1).status());
+        assertEquals(BlogPostBatchItem.Status.CREATED, result.items().get(2).status());
+    }
+
+    @Test
+    void createBlogPostsRejectsOversizedBatch() {
+        List<BlogPostDto> blogPostDtos = Collections.nCopies(6, new BlogPostDto("Title", "Text"));
+
+        assertThrows(InvalidRequestException.class, () -> blogPostBatchService.createBlogPosts(blogPostDtos));
+        verifyNoInteractions(persistenceService);
+    }
+
+    private Void assignIds(List<BlogPost> posts) {
+        posts.forEach(post -> post.setId(ids.incrementAndGet()));
+        return null;
+    }
+}
@@ -0,0 +1,167 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.accept.ContentNegotiationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit tests for the {@link BlogPostController} class.
+ * <p>
+ * This class runs the listing endpoints through the message converters of the application, to
+ * test that every encoding of a listing has an entity tag of its own, and that the responses to
+ * conditional requests, modified or not, vary by the Accept header.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+final class BlogPostControllerTest {
+
+    private static final String POSTS_URL = "/api/v1/posts";
+
+    private static final String TAG_URL = "/api/v1/posts/tags/java";
+
+    private static final String POSTS_ETAG = "\"posts-1\"";
+
+    private static final String TAG_ETAG = "\"tag-1\"";
+
+    @Mock
+    private BlogPostService blogPostService;
+
+    @Mock
+    private BlogPostExportService blogPostExportService;
+
+    @Mock
+    private BlogPostBatchService blogPostBatchService;
+
+    @Mock
+    private BlogPostSearchService blogPostSearchService;
+
+    @Mock
+    private BlogPostExportLimiter blogPostExportLimiter;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        converters.add(new MappingJackson2HttpMessageConverter());
+        new BlogPostEncodingConfig(Jackson2ObjectMapperBuilder.json()).extendMessageConverters(converters);
+        BlogPostController controller = new BlogPostController(blogPostService, blogPostExportService,
+                blogPostBatchService, blogPostSearchService, blogPostExportLimiter,
+                new BlogPostListingNegotiator(new ContentNegotiationManager()));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setMessageConverters(converters.toArray(HttpMessageConverter<?>[]::new))
+                .build();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"application/json", "application/cbor", "application/x-jackson-smile",
+            "application/x-protobuf"})
+    void encodesPostsAsAccepted(String accept) throws Exception {
+        when(blogPostService.getBlogPostsETag()).thenReturn(POSTS_ETAG);
+        when(blogPostService.getBlogPosts(any(), anyInt()))
+                .thenReturn(new BlogPostPage(List.of(new BlogPostSummary(1, "First", "Text")), null));
+
+        String eTag = mockMvc.perform(get(POSTS_URL).accept(accept))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(accept))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertEquals("\"posts-1-" + MediaType.parseMediaType(accept).getSubtype() + "\"", eTag);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"application/json", "application/cbor", "application/x-jackson-smile",
+            "application/x-protobuf"})
+    void encodesPostsByTagAsAccepted(String accept) throws Exception {
+        when(blogPostService.getBlogPostsByTagETag("java")).thenReturn(TAG_ETAG);
+        when(blogPostService.getBlogPostsByTag("java")).thenReturn(Set.of(new BlogPostDto("First", "Text")));
+
+        String eTag = mockMvc.perform(get(TAG_URL).accept(accept))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(accept))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertEquals("\"tag-1-" + MediaType.parseMediaType(accept).getSubtype() + "\"", eTag);
+    }
+
+    @Test
+    void encodingsHaveDistinctEntityTags() throws Exception {
+        when(blogPostService.getBlogPostsETag()).thenReturn(POSTS_ETAG);
+        when(blogPostService.getBlogPosts(any(), anyInt())).thenReturn(new BlogPostPage(List.of(), null));
+
+        Set<String> eTags = new HashSet<>();
+        for (MediaType accept : List.of(MediaType.ALL, MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR,
+                BlogPostListingNegotiator.SMILE, BlogPostProtobufHttpMessageConverter.PROTOBUF)) {
+            MvcResult result = mockMvc.perform(get(POSTS_URL).accept(accept)).andReturn();
+            eTags.add(result.getResponse().getHeader(HttpHeaders.ETAG));
+        }
+
+        assertEquals(4, eTags.size());
+    }
+
+    @Test
+    void notModifiedVariesByAccept() throws Exception {
+        when(blogPostService.getBlogPostsETag()).thenReturn(POSTS_ETAG);
+
+        mockMvc.perform(get(POSTS_URL)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"posts-1-cbor\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"posts-1-cbor\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        verify(blogPostService, never()).getBlogPosts(any(), anyInt());
+    }
+
+    @Test
+    void entityTagOfAnotherEncodingDoesNotMatch() throws Exception {
+        when(blogPostService.getBlogPostsByTagETag("java")).thenReturn(TAG_ETAG);
+        when(blogPostService.getBlogPostsByTag("java")).thenReturn(Set.of());
+
+        mockMvc.perform(get(TAG_URL)
+                        .accept(BlogPostProtobufHttpMessageConverter.PROTOBUF)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"tag-1-json\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BlogPostProtobufHttpMessageConverter.PROTOBUF))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"tag-1-x-protobuf\""));
+    }
+
+    @Test
+    void rejectsUnsupportedEncoding() throws Exception {
+        when(blogPostService.getBlogPostsETag()).thenReturn(POSTS_ETAG);
+
+        mockMvc.perform(get(POSTS_URL).accept(MediaType.APPLICATION_XML))
+                .andExpect(status().isNotAcceptable());
+
+        verify(blogPostService, never()).getBlogPosts(any(), anyInt());
+    }
+}
@@ -0,0 +1,122 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.scalefocus.mk.blog.api.shared.exceptions.EntityPersistenceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link BlogPostExportLimiter} class.
+ * <p>
+ * This class tests the rejection of exports beyond the limit and the release of their slots
+ * once their bodies have run, successfully or not, or once their asynchronous requests have
+ * ended without running them. Such a request is processed with a task executor that never runs
+ * its tasks.
+ * </p>
+ */
+final class BlogPostExportLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BlogPostExportLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new BlogPostExportLimiter(1, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void rejectsExportsBeyondTheLimit() throws IOException {
+        StreamingResponseBody running = limiter.limit(outputStream -> outputStream.write('x'));
+
+        EntityPersistenceException exception = assertThrows(EntityPersistenceException.class,
+                () -> limiter.limit(outputStream -> outputStream.write('y')));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+        assertEquals(1, meterRegistry.counter(BlogPostExportLimiter.REJECTED_METRIC).count());
+        assertEquals(1, meterRegistry.get(BlogPostExportLimiter.ACTIVE_METRIC).gauge().value());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        running.writeTo(output);
+        assertEquals("x", output.toString());
+        assertEquals(0, meterRegistry.get(BlogPostExportLimiter.ACTIVE_METRIC).gauge().value());
+        assertDoesNotThrow(() -> limiter.limit(outputStream -> outputStream.write('z')));
+    }
+
+    @Test
+    void releasesTheSlotOfAFailedExport() {
+        StreamingResponseBody failing = limiter.limit(outputStream -> {
+            throw new IOException("Broken pipe");
+        });
+
+        assertThrows(IOException.class, () -> failing.writeTo(new ByteArrayOutputStream()));
+        assertDoesNotThrow(() -> limiter.limit(outputStream -> outputStream.write('x')));
+    }
+
+    @Test
+    void releasesTheSlotOfAnExportWhoseBodyNeverRuns() throws Exception {
+        MockHttpServletRequest request = asyncRequest();
+        StreamingResponseBody body = limiter.limit(outputStream -> outputStream.write('x'));
+        startAsync(request, body);
+
+        request.getAsyncContext().complete();
+
+        assertEquals(0, meterRegistry.get(BlogPostExportLimiter.ACTIVE_METRIC).gauge().value());
+        assertDoesNotThrow(() -> limiter.limit(outputStream -> outputStream.write('y')));
+    }
+
+    @Test
+    void releasesTheSlotOfATimedOutExportOnce() throws Exception {
+        MockHttpServletRequest request = asyncRequest();
+        StreamingResponseBody body = limiter.limit(outputStream -> outputStream.write('x'));
+        startAsync(request, body);
+
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+        asyncContext.complete();
+        body.writeTo(new ByteArrayOutputStream());
+
+        assertEquals(0, meterRegistry.get(BlogPostExportLimiter.ACTIVE_METRIC).gauge().value());
+    }
+
+    private static MockHttpServletRequest asyncRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return request;
+    }
+
+    private static void startAsync(MockHttpServletRequest request, StreamingResponseBody body) throws Exception {
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, new MockHttpServletResponse()));
+        AsyncTaskExecutor neverRuns = task -> {
+        };
+        asyncManager.setTaskExecutor(neverRuns);
+        asyncManager.startCallableProcessing(() -> body);
+    }
+}
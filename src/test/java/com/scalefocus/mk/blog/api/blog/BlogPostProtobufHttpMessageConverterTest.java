@@ -0,0 +1,85 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnknownFieldSet;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link BlogPostProtobufHttpMessageConverter} class.
+ * <p>
+ * This class writes listings and decodes them again as raw Protobuf fields, to test the field
+ * numbers of the schema, the omission of default values and the types the converter accepts.
+ * </p>
+ */
+final class BlogPostProtobufHttpMessageConverterTest {
+
+    private static final Type BLOG_POST_DTOS = new ParameterizedTypeReference<Set<BlogPostDto>>() {
+    }.getType();
+
+    private static final Type BLOG_TAG_COUNTS = new ParameterizedTypeReference<List<BlogTagCount>>() {
+    }.getType();
+
+    private final BlogPostProtobufHttpMessageConverter converter = new BlogPostProtobufHttpMessageConverter();
+
+    @Test
+    void writesBlogPostPage() throws IOException {
+        BlogPostPage page = new BlogPostPage(List.of(
+                new BlogPostSummary(1, "First", "Text"),
+                new BlogPostSummary(2, "Second", "")), "Mg");
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+
+        converter.write(page, BlogPostPage.class, BlogPostProtobufHttpMessageConverter.PROTOBUF, message);
+
+        UnknownFieldSet fields = UnknownFieldSet.parseFrom(message.getBodyAsBytes());
+        List<ByteString> posts = fields.getField(1).getLengthDelimitedList();
+        assertEquals(2, posts.size());
+        UnknownFieldSet first = UnknownFieldSet.parseFrom(posts.get(0));
+        assertEquals(List.of(1L), first.getField(1).getVarintList());
+        assertEquals("First", first.getField(2).getLengthDelimitedList().get(0).toStringUtf8());
+        assertEquals("Text", first.getField(3).getLengthDelimitedList().get(0).toStringUtf8());
+        assertFalse(UnknownFieldSet.parseFrom(posts.get(1)).hasField(3));
+        assertEquals("Mg", fields.getField(2).getLengthDelimitedList().get(0).toStringUtf8());
+        assertEquals("blog.v1.BlogPostPage", message.getHeaders().getFirst("X-Protobuf-Message"));
+        assertEquals(BlogPostProtobufHttpMessageConverter.PROTOBUF, message.getHeaders().getContentType());
+    }
+
+    @Test
+    void writesBlogPostList() throws IOException {
+        Set<BlogPostDto> blogPosts = new LinkedHashSet<>(List.of(
+                new BlogPostDto("First", "Text"),
+                new BlogPostDto("Second", "Другий текст")));
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+
+        converter.write(blogPosts, BLOG_POST_DTOS, BlogPostProtobufHttpMessageConverter.PROTOBUF, message);
+
+        List<ByteString> posts = UnknownFieldSet.parseFrom(message.getBodyAsBytes())
+                .getField(1).getLengthDelimitedList();
+        assertEquals(2, posts.size());
+        UnknownFieldSet second = UnknownFieldSet.parseFrom(posts.get(1));
+        assertEquals("Second", second.getField(1).getLengthDelimitedList().get(0).toStringUtf8());
+        assertEquals("Другий текст", second.getField(2).getLengthDelimitedList().get(0).toStringUtf8());
+        assertEquals("blog.v1.BlogPostList", message.getHeaders().getFirst("X-Protobuf-Message"));
+    }
+
+    @Test
+    void writesOnlyBlogPostListings() {
+        MediaType protobuf = BlogPostProtobufHttpMessageConverter.PROTOBUF;
+
+        assertTrue(converter.canWrite(BlogPostPage.class, BlogPostPage.class, protobuf));
+        assertTrue(converter.canWrite(BLOG_POST_DTOS, Set.class, protobuf));
+        assertFalse(converter.canWrite(BLOG_TAG_COUNTS, List.class, protobuf));
+        assertFalse(converter.canWrite(BlogPostPage.class, BlogPostPage.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(BLOG_POST_DTOS, null, protobuf));
+    }
+}
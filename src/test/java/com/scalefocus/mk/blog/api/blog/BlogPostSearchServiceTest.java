@@ -0,0 +1,86 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.scalefocus.mk.blog.api.shared.exceptions.InvalidRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link BlogPostSearchService} class.
+ * <p>
+ * This class uses Mockito to mock dependencies and test the functionality of the BlogPostSearchService class.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+final class BlogPostSearchServiceTest {
+
+    private static final String QUERY = "spring boot";
+    private static final int MAX_RESULTS = 5;
+
+    @Mock
+    private BlogPostSearchRepository searchRepository;
+
+    private BlogPostSearchService blogPostSearchService;
+
+    @BeforeEach
+    void setUp() {
+        blogPostSearchService = new BlogPostSearchService(searchRepository, MAX_RESULTS);
+    }
+
+    @Test
+    void searchBlogPosts() {
+        List<BlogPostSummary> blogPosts = List.of(
+                new BlogPostSummary(7, "First", "First content"),
+                new BlogPostSummary(3, "Second", "Second content"));
+        when(searchRepository.search(QUERY, 0, 3)).thenReturn(blogPosts);
+
+        BlogPostPage result = blogPostSearchService.searchBlogPosts(QUERY, null, 2);
+
+        assertEquals(blogPosts, result.posts());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void searchBlogPostsWithNextPage() {
+        List<BlogPostSummary> blogPosts = List.of(
+                new BlogPostSummary(7, "First", "First content"),
+                new BlogPostSummary(3, "Second", "Second content"));
+        when(searchRepository.search(QUERY, 2, 2)).thenReturn(blogPosts);
+
+        BlogPostPage result = blogPostSearchService.searchBlogPosts(QUERY, BlogPostCursor.encodeOffset(2), 1);
+
+        assertEquals(blogPosts.subList(0, 1), result.posts());
+        assertEquals(3, BlogPostCursor.decodeOffset(result.nextCursor()));
+    }
+
+    @Test
+    void searchBlogPostsStopsAtMaxResults() {
+        List<BlogPostSummary> blogPosts = List.of(new BlogPostSummary(7, "First", "First content"));
+        when(searchRepository.search(QUERY, 4, 2)).thenReturn(blogPosts);
+
+        BlogPostPage result = blogPostSearchService.searchBlogPosts(QUERY, BlogPostCursor.encodeOffset(4), 10);
+        BlogPostPage beyond = blogPostSearchService.searchBlogPosts(QUERY, BlogPostCursor.encodeOffset(MAX_RESULTS), 10);
+
+        assertEquals(blogPosts, result.posts());
+        assertTrue(beyond.posts().isEmpty());
+        assertNull(beyond.nextCursor());
+        verify(searchRepository, times(1)).search(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void searchBlogPostsWithInvalidQuery() {
+        assertThrows(InvalidRequestException.class, () -> blogPostSearchService.searchBlogPosts(" ", null, 10));
+        assertThrows(InvalidRequestException.class,
+                () -> blogPostSearchService.searchBlogPosts("a".repeat(BlogPostSearchService.MAX_QUERY_LENGTH + 1), null, 10));
+        assertThrows(InvalidRequestException.class,
+                () -> blogPostSearchService.searchBlogPosts(QUERY, BlogPostCursor.encode(3), 10));
+        verifyNoInteractions(searchRepository);
+    }
+}
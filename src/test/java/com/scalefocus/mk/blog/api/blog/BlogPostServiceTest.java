@@ -1,20 +1,37 @@
 package com.scalefocus.mk.blog.api.blog;
 
 import com.scalefocus.mk.blog.api.shared.auth.AuthService;
+import com.scalefocus.mk.blog.api.shared.exceptions.EntityPersistenceException;
+import com.scalefocus.mk.blog.api.shared.exceptions.InvalidRequestException;
 import com.scalefocus.mk.blog.api.shared.persistence.PersistenceService;
+import com.scalefocus.mk.blog.api.shared.persistence.ReadYourWrites;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Duration;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 /**
@@ -28,6 +45,8 @@ final class BlogPostServiceTest {
 
     private static final String MOCKITO_USER = "Mockito";
     private static final String TAG_NAME = "Test tag";
+    private static final BlogTagRef TAG = new BlogTagRef(10, TAG_NAME);
+    private static final BlogTagRef OLD_TAG = new BlogTagRef(20, "Old tag");
 
     @Mock
     private BlogPostRepository blogPostRepository;
@@ -39,10 +58,31 @@ final class BlogPostServiceTest {
     private PersistenceService persistenceService;
 
     @Mock
-    private BlogTagRepository tagRepository;
+    private BlogPostMapper blogPostMapper;
 
     @Mock
-    private BlogPostMapper blogPostMapper;
+    private BlogPostTagJdbcRepository postTagRepository;
+
+    @Mock
+    private BlogTagResolver tagResolver;
+
+    @Mock
+    private BlogTagIndex tagIndex;
+
+    @Mock
+    private BlogPostJdbcRepository blogPostJdbcRepository;
+
+    @Mock
+    private BlogTagWriteBehind tagWriteBehind;
+
+    @Mock
+    private ReadYourWrites readYourWrites;
+
+    @Spy
+    private BlogPostCache blogPostCache = new BlogPostCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Spy
+    private ObservationRegistry observationRegistry = ObservationRegistry.create();
 
     @InjectMocks
     private BlogPostService blogPostService;
@@ -53,10 +93,10 @@ final class BlogPostServiceTest {
     void createBlogPost() {
         BlogPostDto blogPostDto = new BlogPostDto("Test Title", "Test Content");
         BlogPost blogPost = new BlogPost();
+        blogPost.setId(1);
 
         when(blogPostRepository.existsByTitle(blogPostDto.title())).thenReturn(false);
         when(blogPostMapper.blogPostDtoToEntity(blogPostDto)).thenReturn(blogPost);
-        when(persistenceService.persist(blogPost)).thenReturn(true);
         when(authService.getCurrentUsername()).thenReturn(MOCKITO_USER);
 
         ResponseEntity<String> response = blogPostService.createBlogPost(blogPostDto);
@@ -65,92 +105,314 @@ final class BlogPostServiceTest {
         verify(blogPostRepository, times(1)).existsByTitle(blogPostDto.title());
         verify(persistenceService, times(1)).persist(blogPost);
         verify(authService, times(1)).getCurrentUsername();
+        verify(blogPostCache, times(1)).evictPost(1);
     }
 
     @Test
-    void getAllBlogPosts() {
-        Set<BlogPostDto> blogPosts = new HashSet<>();
-        when(blogPostRepository.getAllBlogPostsAsDto()).thenReturn(blogPosts);
+    void getBlogPosts() {
+        List<BlogPostSummary> blogPosts = List.of(
+                new BlogPostSummary(1, "First", "First content"),
+                new BlogPostSummary(2, "Second", "Second content"));
+        when(blogPostRepository.findPageAfter(0, Limit.of(3))).thenReturn(blogPosts);
 
-        Set<BlogPostDto> result = blogPostService.getAllBlogPosts();
+        BlogPostPage result = blogPostService.getBlogPosts(null, 2);
 
-        assertEquals(blogPosts, result);
-        verify(blogPostRepository, times(1)).getAllBlogPostsAsDto();
+        assertEquals(blogPosts, result.posts());
+        assertNull(result.nextCursor());
+        verify(blogPostRepository, times(1)).findPageAfter(0, Limit.of(3));
+    }
+
+    @Test
+    void getBlogPostsFromCache() {
+        List<BlogPostSummary> blogPosts = List.of(new BlogPostSummary(1, "First", "First content"));
+        when(blogPostRepository.findPageAfter(0, Limit.of(11))).thenReturn(blogPosts);
+
+        blogPostService.getBlogPosts(null, 10);
+        BlogPostPage result = blogPostService.getBlogPosts(null, 10);
+
+        assertEquals(blogPosts, result.posts());
+        verify(blogPostRepository, times(1)).findPageAfter(0, Limit.of(11));
+    }
+
+    @Test
+    void getBlogPostsAfterEviction() {
+        List<BlogPostSummary> blogPosts = List.of(new BlogPostSummary(1, "First", "First content"));
+        when(blogPostRepository.findPageAfter(0, Limit.of(11))).thenReturn(blogPosts);
+
+        blogPostService.getBlogPosts(null, 10);
+        blogPostCache.evictPost(2);
+        blogPostService.getBlogPosts(null, 10);
+
+        verify(blogPostRepository, times(2)).findPageAfter(0, Limit.of(11));
+    }
+
+    @Test
+    void getMyBlogPosts() {
+        List<BlogPostSummary> blogPosts = List.of(
+                new BlogPostSummary(4, "First", "First content"),
+                new BlogPostSummary(7, "Second", "Second content"));
+        when(authService.getCurrentUsername()).thenReturn(MOCKITO_USER);
+        when(blogPostRepository.findPageByOwnerAfter(MOCKITO_USER, 3, Limit.of(2))).thenReturn(blogPosts);
+
+        BlogPostPage result = blogPostService.getMyBlogPosts(BlogPostCursor.encode(3), 1);
+
+        assertEquals(blogPosts.subList(0, 1), result.posts());
+        assertEquals(4, BlogPostCursor.decode(result.nextCursor()));
+        verify(blogPostRepository, never()).findPageAfter(anyInt(), any());
+    }
+
+    @Test
+    void getBlogPostsWithNextPage() {
+        List<BlogPostSummary> blogPosts = List.of(
+                new BlogPostSummary(4, "First", "First content"),
+                new BlogPostSummary(7, "Second", "Second content"));
+        when(blogPostRepository.findPageAfter(3, Limit.of(2))).thenReturn(blogPosts);
+
+        BlogPostPage result = blogPostService.getBlogPosts(BlogPostCursor.encode(3), 1);
+
+        assertEquals(blogPosts.subList(0, 1), result.posts());
+        assertEquals(4, BlogPostCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    void getBlogPostsETag() {
+        when(tagResolver.find(TAG_NAME)).thenReturn(Optional.of(TAG));
+        String eTag = blogPostService.getBlogPostsETag();
+        String tagETag = blogPostService.getBlogPostsByTagETag(TAG_NAME);
+
+        assertEquals(eTag, blogPostService.getBlogPostsETag());
+        assertEquals(tagETag, blogPostService.getBlogPostsByTagETag(TAG_NAME));
+        blogPostCache.evictTag(OLD_TAG.id());
+        assertEquals(tagETag, blogPostService.getBlogPostsByTagETag(TAG_NAME));
+        assertEquals(eTag, blogPostService.getBlogPostsETag());
+        blogPostCache.evictTag(TAG.id());
+        assertNotEquals(tagETag, blogPostService.getBlogPostsByTagETag(TAG_NAME));
+        blogPostCache.evictPost(1);
+        assertNotEquals(eTag, blogPostService.getBlogPostsETag());
+        verifyNoInteractions(blogPostRepository);
+    }
+
+    @Test
+    void getBlogPostsByTagSharesEntryAcrossSpellings() {
+        Set<BlogPostDto> blogPosts = Set.of(new BlogPostDto("Title", "Text"));
+        BlogTagRef cafe = new BlogTagRef(30, "Café");
+        when(tagResolver.find(anyString())).thenReturn(Optional.of(cafe));
+        when(blogPostRepository.findAllByTag(cafe.name())).thenReturn(blogPosts);
+        String tagETag = blogPostService.getBlogPostsByTagETag("CAFÉ");
+
+        assertEquals(blogPosts, blogPostService.getBlogPostsByTag("CAFÉ"));
+        assertEquals(blogPosts, blogPostService.getBlogPostsByTag("cafe"));
+        assertEquals(tagETag, blogPostService.getBlogPostsByTagETag("cafe"));
+        verify(blogPostRepository, times(1)).findAllByTag(anyString());
+
+        blogPostCache.evictTag(cafe.id());
+        assertNotEquals(tagETag, blogPostService.getBlogPostsByTagETag("CAFÉ"));
+        blogPostService.getBlogPostsByTag("Cafe");
+        verify(blogPostRepository, times(2)).findAllByTag(anyString());
+    }
+
+    @Test
+    void getBlogPostsByMissingTag() {
+        when(tagResolver.find(TAG_NAME)).thenReturn(Optional.empty());
+
+        assertEquals(Set.of(), blogPostService.getBlogPostsByTag(TAG_NAME));
+        assertEquals(blogPostCache.missingTagETag(), blogPostService.getBlogPostsByTagETag(TAG_NAME));
+        assertNotEquals(blogPostCache.tagETag(TAG.id()), blogPostService.getBlogPostsByTagETag(TAG_NAME));
+        verifyNoInteractions(blogPostRepository);
+    }
+
+    @Test
+    void getBlogPostsWithInvalidCursor() {
+        assertThrows(InvalidRequestException.class, () -> blogPostService.getBlogPosts("not-a-cursor", 10));
+        verifyNoInteractions(blogPostRepository);
+    }
+
+    @Test
+    void getBlogPost() {
+        BlogPost blogPost = new BlogPost();
+        int postId = 1;
+        blogPost.setId(postId);
+        BlogPostDetails details = new BlogPostDetails(postId, "Title", "Text", MOCKITO_USER, Set.of(TAG_NAME), 0);
+
+        when(blogPostRepository.findByIdWithTags(postId)).thenReturn(Optional.of(blogPost));
+        when(blogPostMapper.blogPostToDetails(blogPost)).thenReturn(details);
+
+        assertEquals(details, blogPostService.getBlogPost(postId));
+        verifyNoInteractions(authService);
+    }
+
+    @Test
+    void getMissingBlogPost() {
+        when(blogPostRepository.findByIdWithTags(1)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> blogPostService.getBlogPost(1));
     }
 
     @Test
     void updateBlogPost() {
         BlogPostDto updatedPost = new BlogPostDto("Updated Title", "Updated Content");
-        BlogPost blogPostEntity = new BlogPost();
-        blogPostEntity.setTitle("Old Title");
-        blogPostEntity.setOwnerUsername(MOCKITO_USER);
         int id = 1;
 
-        when(blogPostRepository.findById(id)).thenReturn(Optional.of(blogPostEntity));
-        when(persistenceService.update(blogPostEntity)).thenReturn(true);
+        when(authService.getCurrentUsername()).thenReturn(MOCKITO_USER);
+        when(blogPostJdbcRepository.update(id, MOCKITO_USER, 3L, "Updated Title", "Updated Content")).thenReturn(1);
+        when(tagIndex.findTags(id)).thenReturn(List.of(TAG));
 
-        ResponseEntity<String> response = blogPostService.updateBlogPost(updatedPost, id);
+        ResponseEntity<String> response = blogPostService.updateBlogPost(updatedPost, id, 3L);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(blogPostRepository, times(1)).findById(id);
-        verify(persistenceService, times(1)).update(blogPostEntity);
+        verify(persistenceService, times(1)).evictEntities(BlogPost.class, Set.of(id));
+        verify(blogPostCache, times(1)).evictPost(id);
+        verify(blogPostCache, times(1)).evictTag(TAG.id());
+        verify(blogPostJdbcRepository, never()).findVersion(id);
+        verifyNoInteractions(blogPostRepository);
+    }
+
+    @Test
+    void updateBlogPostWithExistingTitle() {
+        BlogPostDto updatedPost = new BlogPostDto("Existing Title", "Updated Content");
+        int id = 1;
+
+        when(authService.getCurrentUsername()).thenReturn(MOCKITO_USER);
+        when(blogPostJdbcRepository.update(id, MOCKITO_USER, null, "Existing Title", "Updated Content"))
+                .thenThrow(new DuplicateKeyException("Duplicate entry"));
+
+        ResponseEntity<String> response = blogPostService.updateBlogPost(updatedPost, id, null);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verifyNoInteractions(persistenceService);
+        verify(blogPostCache, never()).evictPost(id);
+    }
+
+    @Test
+    void updateBlogPostWithStaleVersion() {
+        BlogPostDto updatedPost = new BlogPostDto("Updated Title", "Updated Content");
+        int id = 1;
+
+        when(authService.getCurrentUsername()).thenReturn(MOCKITO_USER);
+        when(blogPostJdbcRepository.update(id, MOCKITO_USER, 3L, "Updated Title", "Updated Content")).thenReturn(0);
+        when(blogPostJdbcRepository.findVersion(id))
+                .thenReturn(Optional.of(new BlogPostJdbcRepository.PostVersion(MOCKITO_USER, 4L)));
+
+        EntityPersistenceException exception = assertThrows(EntityPersistenceException.class,
+                () -> blogPostService.updateBlogPost(updatedPost, id, 3L));
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatus());
         verify(authService, times(1)).validateCurrentUsername(MOCKITO_USER);
+        verifyNoInteractions(persistenceService);
+    }
+
+    @Test
+    void updateMissingBlogPost() {
+        BlogPostDto updatedPost = new BlogPostDto("Updated Title", "Updated Content");
+        int id = 1;
+
+        when(authService.getCurrentUsername()).thenReturn(MOCKITO_USER);
+        when(blogPostJdbcRepository.update(id, MOCKITO_USER, null, "Updated Title", "Updated Content")).thenReturn(0);
+        when(blogPostJdbcRepository.findVersion(id)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> blogPostService.updateBlogPost(updatedPost, id, null));
+        verifyNoInteractions(persistenceService);
     }
 
     @Test
     void removeBlogPost() {
         BlogPost post = new BlogPost();
         int postId = 1;
+        post.setId(postId);
 
-        when(blogPostRepository.findById(postId)).thenReturn(Optional.of(post));
-        when(persistenceService.remove(post)).thenReturn(true);
+        when(blogPostRepository.findByIdWithTags(postId)).thenReturn(Optional.of(post));
+        when(persistenceService.inUnitOfWork(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
 
         ResponseEntity<Void> response = blogPostService.removeBlogPost(postId);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(blogPostRepository, times(1)).findById(postId);
+        verify(blogPostRepository, times(1)).findByIdWithTags(postId);
+        verify(blogPostCache, times(1)).evictPost(postId);
         verify(persistenceService, times(1)).remove(post);
+        verify(readYourWrites, times(1)).recordWrite();
     }
 
     @Test
     void addTagToPost() {
-        BlogPost post = new BlogPost();
-        post.setTitle("Old Title");
-        post.setOwnerUsername(MOCKITO_USER);
         int postId = 1;
-        BlogTag tag = new BlogTag();
         String tagName = TAG_NAME;
 
-        when(blogPostRepository.findByIdWithTags(postId)).thenReturn(Optional.of(post));
-        when(tagRepository.findByName(tagName)).thenReturn(Optional.of(tag));
-        when(persistenceService.update(post)).thenReturn(true);
+        when(postTagRepository.findOwners(Set.of(postId))).thenReturn(Map.of(postId, MOCKITO_USER));
+        when(tagResolver.resolve(tagName)).thenReturn(TAG);
 
         ResponseEntity<Void> response = blogPostService.addTagToPost(postId, tagName);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
-        verify(blogPostRepository, times(1)).findByIdWithTags(postId);
-        verify(tagRepository, times(1)).findByName(tagName);
-        verify(persistenceService, times(1)).update(post);
+        verify(postTagRepository, times(1)).insertPostTags(List.of(new BlogPostTagJdbcRepository.PostTag(postId, 10)));
+        verify(tagIndex, times(1)).add(TAG, postId);
         verify(authService, times(1)).validateCurrentUsername(MOCKITO_USER);
+        verify(blogPostCache, times(1)).evictTag(TAG.id());
+        verify(persistenceService, times(1)).evictCollections(BlogPost.class, "tags", Set.of(postId));
+        verifyNoInteractions(blogPostRepository);
+    }
+
+    @Test
+    void addTagToPostWriteBehind() {
+        int postId = 1;
+
+        when(postTagRepository.findOwners(Set.of(postId))).thenReturn(Map.of(postId, MOCKITO_USER));
+        when(tagWriteBehind.isEnabled()).thenReturn(true);
+
+        ResponseEntity<Void> response = blogPostService.addTagToPost(postId, TAG_NAME);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        verify(tagWriteBehind, times(1)).add(postId, TAG_NAME);
+        verify(authService, times(1)).validateCurrentUsername(MOCKITO_USER);
+        verifyNoInteractions(tagResolver, tagIndex, persistenceService);
+        verify(postTagRepository, never()).insertPostTags(anyList());
+    }
+
+    @Test
+    void addInvalidTagToPost() {
+        assertThrows(InvalidRequestException.class, () -> blogPostService.addTagToPost(1, " "));
+        assertThrows(InvalidRequestException.class,
+                () -> blogPostService.addTagToPost(1, "a".repeat(BlogPostService.MAX_TAG_NAME_LENGTH + 1)));
+        verifyNoInteractions(postTagRepository, tagResolver, tagWriteBehind);
+    }
+
+    @Test
+    void addTagToMissingPost() {
+        int postId = 1;
+
+        when(postTagRepository.findOwners(Set.of(postId))).thenReturn(Map.of());
+
+        assertThrows(EntityNotFoundException.class, () -> blogPostService.addTagToPost(postId, TAG_NAME));
+        verifyNoInteractions(tagResolver);
     }
 
     @Test
     void removeTagFromPost() {
-        BlogPost post = new BlogPost();
-        BlogTag tag = new BlogTag();
         int postId = 1;
         String tagName = TAG_NAME;
 
-        when(blogPostRepository.findByIdWithTags(postId)).thenReturn(Optional.of(post));
-        when(tagRepository.findByName(tagName)).thenReturn(Optional.of(tag));
-        when(persistenceService.update(post)).thenReturn(true);
+        when(postTagRepository.findOwners(Set.of(postId))).thenReturn(Map.of(postId, MOCKITO_USER));
+        when(tagResolver.find(tagName)).thenReturn(Optional.of(TAG));
 
         ResponseEntity<Void> response = blogPostService.removeTagFromPost(postId, tagName);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(blogPostRepository, times(1)).findByIdWithTags(postId);
-        verify(tagRepository, times(1)).findByName(tagName);
-        verify(persistenceService, times(1)).update(post);
+        verify(postTagRepository, times(1)).deletePostTags(List.of(new BlogPostTagJdbcRepository.PostTag(postId, 10)));
+        verify(tagIndex, times(1)).remove(TAG, postId);
+        verify(blogPostCache, times(1)).evictTag(TAG.id());
+    }
+
+    @Test
+    void removeMissingTagFromPost() {
+        int postId = 1;
+
+        when(postTagRepository.findOwners(Set.of(postId))).thenReturn(Map.of(postId, MOCKITO_USER));
+        when(tagResolver.find(TAG_NAME)).thenReturn(Optional.empty());
+
+        ResponseEntity<Void> response = blogPostService.removeTagFromPost(postId, TAG_NAME);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(postTagRepository, never()).deletePostTags(anyList());
+        verify(tagResolver, never()).resolve(TAG_NAME);
     }
 
     @Test
@@ -158,12 +420,88 @@ final class BlogPostServiceTest {
         Set<BlogPostDto> blogPosts = new HashSet<>();
         String tagName = TAG_NAME;
 
+        when(tagResolver.find(tagName)).thenReturn(Optional.of(TAG));
         when(blogPostRepository.findAllByTag(tagName)).thenReturn(blogPosts);
 
         Set<BlogPostDto> result = blogPostService.getBlogPostsByTag(tagName);
+        blogPostService.getBlogPostsByTag(tagName);
 
         assertEquals(blogPosts, result);
         verify(blogPostRepository, times(1)).findAllByTag(tagName);
     }
 
+    @Test
+    void getBlogPostsByTags() {
+        List<BlogPostSummary> blogPosts = List.of(
+                new BlogPostSummary(4, "First", "First content"),
+                new BlogPostSummary(7, "Second", "Second content"));
+        when(tagIndex.findPostIds(Set.of(TAG_NAME), Set.of(), Set.of("Old tag"), 3, 3)).thenReturn(List.of(4, 7, 9));
+        when(blogPostRepository.findSummariesByIds(List.of(4, 7))).thenReturn(blogPosts);
+
+        BlogPostPage result = blogPostService.getBlogPostsByTags(
+                Set.of(TAG_NAME), null, Set.of("Old tag"), BlogPostCursor.encode(3), 2);
+
+        assertEquals(blogPosts, result.posts());
+        assertEquals(7, BlogPostCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    void changeTags() {
+        List<BlogPostTagChange> changes = List.of(
+                new BlogPostTagChange(1, Set.of(TAG_NAME), null),
+                new BlogPostTagChange(2, Set.of(TAG_NAME), Set.of("Old tag")));
+
+        when(postTagRepository.findOwners(Set.of(1, 2))).thenReturn(Map.of(1, MOCKITO_USER, 2, MOCKITO_USER));
+        when(tagResolver.resolveAll(Set.of(TAG_NAME))).thenReturn(Map.of(TAG_NAME, TAG));
+        when(tagResolver.findAll(Set.of("Old tag"))).thenReturn(Map.of("Old tag", OLD_TAG));
+        when(postTagRepository.insertPostTags(anyList())).thenReturn(2);
+        when(postTagRepository.deletePostTags(anyList())).thenReturn(1);
+
+        BlogPostTagChangeResult result = blogPostService.changeTags(changes);
+
+        assertEquals(new BlogPostTagChangeResult(2, 1), result);
+        verify(postTagRepository, times(1)).insertPostTags(List.of(
+                new BlogPostTagJdbcRepository.PostTag(1, 10),
+                new BlogPostTagJdbcRepository.PostTag(2, 10)));
+        verify(postTagRepository, times(1)).deletePostTags(List.of(new BlogPostTagJdbcRepository.PostTag(2, 20)));
+        verify(authService, times(2)).validateCurrentUsername(MOCKITO_USER);
+        verify(blogPostCache, times(1)).evictTag(TAG.id());
+        verify(blogPostCache, times(1)).evictTag(OLD_TAG.id());
+        verify(tagIndex, times(1)).add(TAG, 1);
+        verify(tagIndex, times(1)).add(TAG, 2);
+        verify(tagIndex, times(1)).remove(OLD_TAG, 2);
+        verify(persistenceService, times(1)).evictCollections(BlogPost.class, "tags", Set.of(1, 2));
+        verifyNoMoreInteractions(persistenceService);
+    }
+
+    @Test
+    void changeTagsOfMissingPost() {
+        List<BlogPostTagChange> changes = List.of(new BlogPostTagChange(1, Set.of(TAG_NAME), null));
+
+        when(postTagRepository.findOwners(Set.of(1))).thenReturn(Map.of());
+
+        assertThrows(EntityNotFoundException.class, () -> blogPostService.changeTags(changes));
+        verifyNoInteractions(tagResolver);
+    }
+
+    @Test
+    void changeTagsWithConflictingChange() {
+        List<BlogPostTagChange> changes = List.of(new BlogPostTagChange(1, Set.of(TAG_NAME), Set.of(TAG_NAME)));
+
+        assertThrows(InvalidRequestException.class, () -> blogPostService.changeTags(changes));
+        verifyNoInteractions(postTagRepository);
+    }
+
+    @Test
+    void changeTagsWithConflictingSpellings() {
+        List<BlogPostTagChange> changes = List.of(new BlogPostTagChange(1, Set.of("Café"), Set.of("CAFE")));
+
+        when(postTagRepository.findOwners(Set.of(1))).thenReturn(Map.of(1, MOCKITO_USER));
+        when(tagResolver.resolveAll(Set.of("Café"))).thenReturn(Map.of("Café", new BlogTagRef(30, "cafe")));
+        when(tagResolver.findAll(Set.of("CAFE"))).thenReturn(Map.of("CAFE", new BlogTagRef(30, "cafe")));
+
+        assertThrows(InvalidRequestException.class, () -> blogPostService.changeTags(changes));
+        verify(postTagRepository, never()).insertPostTags(anyList());
+        verifyNoInteractions(tagIndex);
+    }
 }
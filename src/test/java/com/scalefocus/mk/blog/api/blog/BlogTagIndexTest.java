@@ -0,0 +1,162 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.scalefocus.mk.blog.api.shared.exceptions.InvalidRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.text.Collator;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * Unit tests for the {@link BlogTagIndex} class.
+ * <p>
+ * This class builds the index from a mocked repository and tests the evaluation of boolean tag
+ * expressions, the tag counts and the incremental changes applied outside a transaction. The
+ * mocked resolver matches names the way the collation of the tag names does, ignoring case and
+ * accents.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+final class BlogTagIndexTest {
+
+    private static final BlogTagRef JAVA = new BlogTagRef(1, "java");
+    private static final BlogTagRef SPRING = new BlogTagRef(2, "spring");
+    private static final BlogTagRef LEGACY = new BlogTagRef(3, "legacy");
+    private static final BlogTagRef KOTLIN = new BlogTagRef(4, "kotlin");
+    private static final BlogTagRef CAFE = new BlogTagRef(5, "Café");
+
+    @Mock
+    private BlogPostTagJdbcRepository postTagRepository;
+
+    @Mock
+    private BlogTagResolver tagResolver;
+
+    private BlogTagIndex tagIndex;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            BiConsumer<Integer, BlogTagRef> consumer = invocation.getArgument(0);
+            consumer.accept(1, JAVA);
+            consumer.accept(1, SPRING);
+            consumer.accept(2, JAVA);
+            consumer.accept(3, SPRING);
+            consumer.accept(4, JAVA);
+            consumer.accept(4, SPRING);
+            consumer.accept(4, LEGACY);
+            consumer.accept(5, KOTLIN);
+            return null;
+        }).when(postTagRepository).forEachPostTag(any());
+        Collator collation = Collator.getInstance(Locale.ROOT);
+        collation.setStrength(Collator.PRIMARY);
+        lenient().when(tagResolver.findAll(anyCollection())).thenAnswer(invocation -> {
+            Map<String, BlogTagRef> tags = new HashMap<>();
+            for (String tagName : invocation.<Collection<String>>getArgument(0)) {
+                List.of(JAVA, SPRING, LEGACY, KOTLIN, CAFE).stream()
+                        .filter(tag -> collation.equals(tag.name(), tagName))
+                        .findFirst()
+                        .ifPresent(tag -> tags.put(tagName, tag));
+            }
+            return tags;
+        });
+        tagIndex = new BlogTagIndex(postTagRepository, tagResolver);
+        tagIndex.rebuild();
+    }
+
+    @Test
+    void findPostIdsWithAllTags() {
+        assertEquals(List.of(1, 4), tagIndex.findPostIds(Set.of("java", "SPRING"), Set.of(), Set.of(), 0, 10));
+    }
+
+    @Test
+    void findPostIdsWithAnyTag() {
+        assertEquals(List.of(1, 2, 4, 5), tagIndex.findPostIds(Set.of(), Set.of("java", "kotlin"), Set.of(), 0, 10));
+    }
+
+    @Test
+    void findPostIdsWithoutTags() {
+        assertEquals(List.of(1, 2), tagIndex.findPostIds(Set.of("java"), Set.of(), Set.of("legacy", "missing"), 0, 10));
+    }
+
+    @Test
+    void findPostIdsCombined() {
+        assertEquals(List.of(1), tagIndex.findPostIds(Set.of("spring"), Set.of("java", "kotlin"), Set.of("legacy"), 0, 10));
+        assertEquals(List.of(), tagIndex.findPostIds(Set.of("java", "missing"), Set.of(), Set.of(), 0, 10));
+    }
+
+    @Test
+    void findPostIdsPage() {
+        assertEquals(List.of(2, 4), tagIndex.findPostIds(Set.of("java"), Set.of(), Set.of(), 1, 2));
+        assertEquals(List.of(), tagIndex.findPostIds(Set.of("java"), Set.of(), Set.of(), 4, 2));
+    }
+
+    @Test
+    void findPostIdsWithoutMatchingTags() {
+        assertThrows(InvalidRequestException.class,
+                () -> tagIndex.findPostIds(Set.of(), Set.of(), Set.of("java"), 0, 10));
+    }
+
+    @Test
+    void findTopTags() {
+        assertEquals(List.of(new BlogTagCount("java", 3), new BlogTagCount("spring", 3)), tagIndex.findTopTags(2));
+        assertEquals(4, tagIndex.findTopTags(10).size());
+    }
+
+    @Test
+    void findTopTagsAfterChanges() {
+        tagIndex.add(KOTLIN, 1);
+        tagIndex.add(KOTLIN, 2);
+        tagIndex.add(KOTLIN, 3);
+        tagIndex.add(KOTLIN, 3);
+        tagIndex.remove(JAVA, 2);
+        tagIndex.remove(LEGACY, 4);
+
+        assertEquals(List.of(
+                new BlogTagCount("kotlin", 4),
+                new BlogTagCount("spring", 3),
+                new BlogTagCount("java", 2)), tagIndex.findTopTags(10));
+    }
+
+    @Test
+    void addAndRemove() {
+        tagIndex.add(KOTLIN, 3);
+        tagIndex.remove(JAVA, 1);
+        tagIndex.remove(LEGACY, 4);
+
+        assertEquals(List.of(3, 5), tagIndex.findPostIds(Set.of("Kotlin"), Set.of(), Set.of(), 0, 10));
+        assertEquals(List.of(2, 4), tagIndex.findPostIds(Set.of("java"), Set.of(), Set.of(), 0, 10));
+        assertEquals(List.of(), tagIndex.findPostIds(Set.of("legacy"), Set.of(), Set.of(), 0, 10));
+    }
+
+    @Test
+    void spellingsOfOneTagShareItsPosts() {
+        tagIndex.add(CAFE, 1);
+        tagIndex.add(CAFE, 2);
+        tagIndex.remove(CAFE, 1);
+
+        assertEquals(List.of(2), tagIndex.findPostIds(Set.of("cafe"), Set.of(), Set.of(), 0, 10));
+        assertEquals(List.of(2), tagIndex.findPostIds(Set.of("CAFÉ"), Set.of(), Set.of(), 0, 10));
+        assertTrue(tagIndex.findTopTags(10).contains(new BlogTagCount("Café", 1)));
+    }
+
+    @Test
+    void findTags() {
+        assertEquals(Set.of(JAVA, SPRING, LEGACY), Set.copyOf(tagIndex.findTags(4)));
+        assertEquals(List.of(), tagIndex.findTags(6));
+    }
+}
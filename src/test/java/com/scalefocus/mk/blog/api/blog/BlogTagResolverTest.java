@@ -0,0 +1,82 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link BlogTagResolver} class.
+ * <p>
+ * This class tests the resolution of cached, created and collation-equal tag names to the
+ * stored tags.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+final class BlogTagResolverTest {
+
+    @Mock
+    private BlogPostTagJdbcRepository postTagRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BlogTagResolver tagResolver;
+
+    @BeforeEach
+    void setUp() {
+        tagResolver = new BlogTagResolver(postTagRepository, transactionManager, 100, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void resolveAllCreatesMissingTags() {
+        when(postTagRepository.findTags(Set.of("Java"))).thenReturn(Map.of("Java", new BlogTagRef(1, "Java")));
+
+        assertEquals(Map.of("Java", new BlogTagRef(1, "Java")), tagResolver.resolveAll(List.of("Java")));
+        assertEquals(Map.of("Java", new BlogTagRef(1, "Java")), tagResolver.resolveAll(List.of("Java")));
+        verify(postTagRepository, times(1)).insertMissingTags(Set.of("Java"));
+        verify(postTagRepository, times(1)).findTags(anyCollection());
+    }
+
+    @Test
+    void resolveAllResolvesCollationEqualTagsToStoredTag() {
+        when(postTagRepository.findTags(Set.of("Café", "Tea")))
+                .thenReturn(Map.of("Café", new BlogTagRef(1, "Cafe"), "Tea", new BlogTagRef(2, "Tea")));
+
+        assertEquals(Map.of("Café", new BlogTagRef(1, "Cafe"), "Tea", new BlogTagRef(2, "Tea")),
+                tagResolver.resolveAll(List.of("Café", "Tea")));
+        assertEquals(Map.of("Café", new BlogTagRef(1, "Cafe"), "Cafe", new BlogTagRef(1, "Cafe")),
+                tagResolver.findAll(List.of("Café", "Cafe")));
+        verify(postTagRepository, times(1)).findTags(anyCollection());
+    }
+
+    @Test
+    void resolveCachesStoredName() {
+        when(postTagRepository.findTags(List.of("CAFÉ"))).thenReturn(Map.of("CAFÉ", new BlogTagRef(1, "Cafe")));
+
+        assertEquals(new BlogTagRef(1, "Cafe"), tagResolver.resolve("CAFÉ"));
+        assertEquals(Optional.of(new BlogTagRef(1, "Cafe")), tagResolver.find("Cafe"));
+        verify(postTagRepository, times(1)).insertMissingTags(List.of("CAFÉ"));
+        verify(postTagRepository, times(1)).findTags(anyCollection());
+    }
+
+    @Test
+    void findDoesNotCreateTags() {
+        when(postTagRepository.findTags(Set.of("Missing"))).thenReturn(Map.of());
+
+        assertEquals(Optional.empty(), tagResolver.find("Missing"));
+        verify(postTagRepository, never()).insertMissingTags(anyCollection());
+    }
+}
@@ -0,0 +1,160 @@
+package com.scalefocus.mk.blog.api.blog;
+
+import com.scalefocus.mk.blog.api.shared.exceptions.EntityPersistenceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.text.Collator;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link BlogTagWriteBehind} class.
+ * <p>
+ * This class queues tag changes against a mocked BlogPostService and tests their coalescing,
+ * the backpressure of a full queue, the batches written by the worker and the drain on stop.
+ * The mocked resolver matches names the way the collation of the tag names does, ignoring case
+ * and accents.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+final class BlogTagWriteBehindTest {
+
+    private static final Duration NEVER = Duration.ofHours(1);
+
+    private static final List<BlogTagRef> TAGS = List.of(
+            new BlogTagRef(1, "java"), new BlogTagRef(2, "spring"), new BlogTagRef(3, "kotlin"),
+            new BlogTagRef(4, "Café"));
+
+    @Mock
+    private BlogPostService blogPostService;
+
+    @Mock
+    private BlogTagResolver tagResolver;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BlogTagWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        Collator collation = Collator.getInstance(Locale.ROOT);
+        collation.setStrength(Collator.PRIMARY);
+        lenient().when(tagResolver.find(anyString())).thenAnswer(invocation -> TAGS.stream()
+                .filter(tag -> collation.equals(tag.name(), invocation.getArgument(0)))
+                .findFirst());
+        lenient().when(tagResolver.resolve(anyString()))
+                .thenAnswer(invocation -> tagResolver.find(invocation.getArgument(0)).orElseThrow());
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.stop();
+    }
+
+    @Test
+    void coalescesChangesAndDrainsOnStop() {
+        writeBehind = start(10, 100, NEVER);
+
+        writeBehind.add(1, "java");
+        writeBehind.remove(1, "Java");
+        writeBehind.add(1, "spring");
+        writeBehind.add(2, "kotlin");
+        assertEquals(3, writeBehind.queueDepth());
+
+        writeBehind.stop();
+
+        verify(blogPostService, times(1)).applyTagChanges(List.of(
+                new BlogPostTagChange(1, Set.of("spring"), Set.of("java")),
+                new BlogPostTagChange(2, Set.of("kotlin"), Set.of())));
+        assertEquals(0, writeBehind.queueDepth());
+    }
+
+    @Test
+    void coalescesChangesOfOneTagUnderAnySpelling() {
+        writeBehind = start(10, 100, NEVER);
+
+        writeBehind.add(1, "CAFÉ");
+        writeBehind.remove(1, "cafe");
+        writeBehind.remove(1, "missing");
+        assertEquals(1, writeBehind.queueDepth());
+
+        writeBehind.stop();
+
+        verify(blogPostService, times(1)).applyTagChanges(List.of(
+                new BlogPostTagChange(1, Set.of(), Set.of("Café"))));
+    }
+
+    @Test
+    void rejectsChangesWhenFull() {
+        writeBehind = start(2, 100, NEVER);
+
+        writeBehind.add(1, "java");
+        writeBehind.add(2, "java");
+        writeBehind.remove(2, "java");
+
+        EntityPersistenceException exception = assertThrows(EntityPersistenceException.class,
+                () -> writeBehind.add(3, "java"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+    }
+
+    @Test
+    void writesFullBatches() {
+        writeBehind = start(10, 2, NEVER);
+
+        writeBehind.add(1, "java");
+        writeBehind.add(2, "java");
+
+        verify(blogPostService, timeout(1000).times(1)).applyTagChanges(List.of(
+                new BlogPostTagChange(1, Set.of("java"), Set.of()),
+                new BlogPostTagChange(2, Set.of("java"), Set.of())));
+    }
+
+    @Test
+    void writesFailedBatchPostByPost() {
+        writeBehind = start(10, 100, NEVER);
+        BlogPostTagChange deleted = new BlogPostTagChange(1, Set.of("java"), Set.of());
+        BlogPostTagChange existing = new BlogPostTagChange(2, Set.of("java"), Set.of());
+        doThrow(new IllegalStateException("Foreign key violated")).when(blogPostService).applyTagChanges(anyList());
+        doReturn(new BlogPostTagChangeResult(1, 0)).when(blogPostService).applyTagChanges(List.of(existing));
+
+        writeBehind.add(1, "java");
+        writeBehind.add(2, "java");
+        writeBehind.stop();
+
+        verify(blogPostService, times(1)).applyTagChanges(List.of(deleted, existing));
+        verify(blogPostService, times(1)).applyTagChanges(List.of(deleted));
+        verify(blogPostService, times(1)).applyTagChanges(List.of(existing));
+        assertEquals(1, meterRegistry.counter(BlogTagWriteBehind.DROPPED_METRIC).count());
+    }
+
+    @Test
+    void rejectsChangesWhenStopped() {
+        writeBehind = start(10, 100, NEVER);
+        writeBehind.stop();
+
+        assertThrows(EntityPersistenceException.class, () -> writeBehind.add(1, "java"));
+        verifyNoInteractions(blogPostService);
+    }
+
+    private BlogTagWriteBehind start(int capacity, int batchSize, Duration flushInterval) {
+        BlogTagWriteBehind started = new BlogTagWriteBehind(blogPostService, tagResolver, true, capacity, batchSize,
+                flushInterval, Duration.ofMillis(10), meterRegistry);
+        started.start();
+        return started;
+    }
+}
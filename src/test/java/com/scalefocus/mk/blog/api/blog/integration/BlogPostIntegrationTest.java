@@ -11,16 +11,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -42,6 +51,7 @@ class BlogPostIntegrationTest {
     private static final String POSTS_URL = "/api/v1/posts";
     private static final String POSTS_TAGS_URL = "/api/v1/posts/%d/tags/%s";
     private static final String TAGS_URL = "/api/v1/posts/tags/%s";
+    private static final String SQL_STATEMENTS = "blog.sql.statements";
 
     @Autowired
     private MockMvc mockMvc;
@@ -52,34 +62,32 @@ class BlogPostIntegrationTest {
     @Autowired
     private BlogPostRepository blogPostRepository;
 
-    @Autowired
-    private BlogTagRepository blogTagRepository;
-
     @Autowired
     private KeycloakClient keycloakClient;
 
     /**
      * Sets up the test data before each test.
      * <p>
-     * This method ensures that a blog post and a blog tag exist before each test is executed.
+     * This method ensures that a blog post exists before each test is executed. Tags are not
+     * created here: the BlogTagResolver creates them in their own committed transaction, and a
+     * tag inserted by the test transaction would lock out that insert.
      * </p>
      */
     @BeforeEach
     void validateAndRefreshToken() {
         createBlogPostEntity();
-        createBlogTagEntity();
     }
 
     /**
      * Cleans up the test data after each test.
      * <p>
-     * This method deletes the blog post and the blog tag after each test is executed.
+     * This method deletes the blog post after each test is executed. Tags created by the
+     * BlogTagResolver are kept, since their identifiers remain cached.
      * </p>
      */
     @AfterEach
     void deleteBlogPostIfExists() {
         blogPostRepository.deleteById(BLOG_POST_ID);
-        blogTagRepository.deleteByName(TAG_NAME);
     }
 
     /**
@@ -99,6 +107,37 @@ class BlogPostIntegrationTest {
                 .andExpect(status().isCreated());
     }
 
+    /**
+     * Tests the creation of a batch of blog posts.
+     * <p>
+     * This test verifies that new posts are created and that posts with a missing, existing
+     * or repeated title are reported individually without failing the batch.
+     * </p>
+     */
+    @Test
+    @SneakyThrows
+    void createBlogPosts() {
+        List<BlogPostDto> blogPostDtos = List.of(
+                new BlogPostDto("Batch Title 1", "Batch Content"),
+                new BlogPostDto("Batch Title 2", "Batch Content"),
+                new BlogPostDto("Batch Title 1", "Batch Content"),
+                new BlogPostDto("Initial Title", "Batch Content"),
+                new BlogPostDto(" ", "Batch Content"));
+        mockMvc.perform(post(POSTS_URL + "/batch")
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(blogPostDtos)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[0].id").isNumber())
+                .andExpect(jsonPath("$.items[1].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[2].status").value("DUPLICATE_IN_BATCH"))
+                .andExpect(jsonPath("$.items[3].status").value("TITLE_EXISTS"))
+                .andExpect(jsonPath("$.items[4].status").value("INVALID"));
+    }
+
     /**
      * Tests retrieving all blog posts.
      * <p>
@@ -111,13 +150,170 @@ class BlogPostIntegrationTest {
         mockMvc.perform(get(POSTS_URL)
                         .header("Authorization", "Bearer " + keycloakClient.getJwtToken()))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.posts").isArray());
+    }
+
+    /**
+     * Tests retrieving all blog posts in a binary encoding.
+     * <p>
+     * This test verifies that the listing is encoded as negotiated through the Accept header,
+     * and that the response varies on it.
+     * </p>
+     */
+    @Test
+    @SneakyThrows
+    void getAllBlogPostsAsBinary() {
+        for (String mediaType : List.of("application/cbor", "application/x-jackson-smile", "application/x-protobuf")) {
+            mockMvc.perform(get(POSTS_URL)
+                            .header("Authorization", "Bearer " + keycloakClient.getJwtToken())
+                            .accept(MediaType.parseMediaType(mediaType)))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(mediaType))
+                    .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+        }
+    }
+
+    /**
+     * Tests retrieving the blog posts of the current user.
+     * <p>
+     * This test verifies that the listing of the current user contains the posts they own.
+     * </p>
+     */
+    @Test
+    @SneakyThrows
+    void getMyBlogPosts() {
+        mockMvc.perform(get(POSTS_URL + "/mine?limit=" + 500)
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.posts[?(@.id == " + BLOG_POST_ID + ")]").exists());
+    }
+
+    /**
+     * Tests conditional retrieval of blog posts.
+     * <p>
+     * This test verifies that a listing is answered with 304 Not Modified while the client's
+     * entity tag is current, and with the posts again once a post has changed.
+     * </p>
+     */
+    @Test
+    @SneakyThrows
+    void getAllBlogPostsNotModified() {
+        String eTag = mockMvc.perform(get(POSTS_URL)
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get(POSTS_URL)
+                        .header("If-None-Match", eTag)
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken()))
+                .andExpect(status().isNotModified());
+
+        BlogPostDto blogPostDto = new BlogPostDto("ETag Title", "ETag Content");
+        mockMvc.perform(post(POSTS_URL)
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(blogPostDto)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get(POSTS_URL)
+                        .header("If-None-Match", eTag)
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken()))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Tests retrieving blog posts with a malformed pagination cursor.
+     * <p>
+     * This test verifies that an invalid cursor is rejected with a bad request status.
+     * </p>
+     */
+    @Test
+    @SneakyThrows
+    void getAllBlogPostsWithInvalidCursor() {
+        mockMvc.perform(get(POSTS_URL)
+                        .param("after", "not-a-cursor")
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken()))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Tests searching blog posts.
+     * <p>
+     * This test verifies that a search returns a page of results. The full-text index only
+     * reflects committed rows, so the post created by the test transaction is not expected in it.
+     * </p>
+     */
+    @Test
+    @SneakyThrows
+    void searchBlogPosts() {
+        mockMvc.perform(get(POSTS_URL + "/search")
+                        .param("q", "Initial Content")
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.posts").isArray());
+    }
+
+    /**
+     * Tests searching blog posts with a blank query.
+     * <p>
+     * This test verifies that a blank query is rejected with a bad request status.
+     * </p>
+     */
+    @Test
+    @SneakyThrows
+    void searchBlogPostsWithBlankQuery() {
+        mockMvc.perform(get(POSTS_URL + "/search")
+                        .param("q", " ")
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken()))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Tests exporting all blog posts.
+     * <p>
+     * This test verifies that the export is streamed asynchronously as newline-delimited JSON.
+     * </p>
+     */
+    @Test
+    @SneakyThrows
+    void exportBlogPosts() {
+        MvcResult result = mockMvc.perform(get(POSTS_URL + "/export")
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+    }
+
+    /**
+     * Tests retrieving a single blog post.
+     * <p>
+     * This test verifies that a blog post is returned with its full text and tags, and that
+     * a missing blog post is reported as not found.
+     * </p>
+     */
+    @Test
+    @SneakyThrows
+    void getBlogPost() {
+        mockMvc.perform(get(String.format(POSTS_URL + "/%d", BLOG_POST_ID))
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.id").value(BLOG_POST_ID))
+                .andExpect(jsonPath("$.text").value("Initial Content"))
+                .andExpect(jsonPath("$.tags").isArray());
+        mockMvc.perform(get(String.format(POSTS_URL + "/%d", Integer.MAX_VALUE))
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken()))
+                .andExpect(status().isNotFound());
     }
 
     /**
      * Tests updating a blog post.
      * <p>
-     * This test verifies that an existing blog post can be updated successfully.
+     * This test verifies that an existing blog post can be updated successfully, with a single
+     * conditional statement.
      * </p>
      */
     @Test
@@ -128,13 +324,34 @@ class BlogPostIntegrationTest {
                         .header("Authorization", "Bearer " + keycloakClient.getJwtToken())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(blogPostDto)))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(request().attribute(SQL_STATEMENTS, lessThanOrEqualTo(1)));
+    }
+
+    /**
+     * Tests updating a blog post based on an outdated version.
+     * <p>
+     * This test verifies that an update whose If-Match header does not match the current version
+     * of the blog post is rejected with 412 Precondition Failed.
+     * </p>
+     */
+    @Test
+    @SneakyThrows
+    void updateBlogPostWithStaleVersion() {
+        BlogPostDto blogPostDto = new BlogPostDto("Updated Title", "Updated Content");
+        mockMvc.perform(put(String.format(POSTS_URL + "/%d", BLOG_POST_ID))
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken())
+                        .header(HttpHeaders.IF_MATCH, "\"" + Long.MAX_VALUE + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(blogPostDto)))
+                .andExpect(status().isPreconditionFailed());
     }
 
     /**
      * Tests adding a tag to a blog post.
      * <p>
-     * This test verifies that a tag can be added to a blog post successfully.
+     * This test verifies that a tag can be added to a blog post successfully, with at most three
+     * statements: the ownership check, the tag upsert and the assignment.
      * </p>
      */
     @Test
@@ -142,7 +359,8 @@ class BlogPostIntegrationTest {
     void addTagToPost() {
         mockMvc.perform(post(String.format(POSTS_TAGS_URL, BLOG_POST_ID, TAG_NAME))
                         .header("Authorization", "Bearer " + keycloakClient.getJwtToken()))
-                .andExpect(status().isCreated());
+                .andExpect(status().isCreated())
+                .andExpect(request().attribute(SQL_STATEMENTS, lessThanOrEqualTo(3)));
     }
 
     /**
@@ -159,6 +377,35 @@ class BlogPostIntegrationTest {
                 .andExpect(status().isOk());
     }
 
+    /**
+     * Tests adding and removing tags across blog posts in bulk.
+     * <p>
+     * This test verifies that missing tags are created and assignments are inserted and deleted.
+     * </p>
+     */
+    @Test
+    @SneakyThrows
+    void changeTags() {
+        List<BlogPostTagChange> changes = List.of(
+                new BlogPostTagChange(BLOG_POST_ID, Set.of(TAG_NAME, "bulk-testing"), null));
+        mockMvc.perform(patch(POSTS_URL + "/tags")
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(changes)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.added").value(2))
+                .andExpect(jsonPath("$.removed").value(0));
+
+        changes = List.of(new BlogPostTagChange(BLOG_POST_ID, null, Set.of(TAG_NAME, "bulk-testing")));
+        mockMvc.perform(patch(POSTS_URL + "/tags")
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(changes)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.added").value(0))
+                .andExpect(jsonPath("$.removed").value(2));
+    }
+
     /**
      * Tests retrieving blog posts by tag.
      * <p>
@@ -174,6 +421,44 @@ class BlogPostIntegrationTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
 
+    /**
+     * Tests retrieving blog posts by a boolean tag expression.
+     * <p>
+     * This test verifies that a page is returned for a valid expression and that an expression
+     * without any tag to match is rejected with a bad request status.
+     * </p>
+     */
+    @Test
+    @SneakyThrows
+    void getBlogPostsByTags() {
+        mockMvc.perform(get(POSTS_URL + "/tags")
+                        .param("all", TAG_NAME)
+                        .param("none", "bulk-testing")
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.posts").isArray());
+        mockMvc.perform(get(POSTS_URL + "/tags")
+                        .param("none", TAG_NAME)
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken()))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Tests retrieving the most used tags.
+     * <p>
+     * This test verifies that the most used tags are returned as an array.
+     * </p>
+     */
+    @Test
+    @SneakyThrows
+    void getTopTags() {
+        mockMvc.perform(get("/api/v1/tags/top")
+                        .param("n", "5")
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray());
+    }
+
     /**
      * Tests deleting a blog post.
      * <p>
@@ -188,17 +473,13 @@ class BlogPostIntegrationTest {
                 .andExpect(status().isOk());
     }
 
-    private void createBlogTagEntity() {
-        blogTagRepository.save(new BlogTag(null, TAG_NAME, new HashSet<>()));
-    }
-
     private void createBlogPostEntity() {
         BlogPost blogPost = new BlogPost();
         blogPost.setTitle("Initial Title");
         blogPost.setText("Initial Content");
         blogPost.setTags(new HashSet<>());
         blogPost.setOwnerUsername(keycloakClient.getKeycloakUsername());
-        blogPostRepository.save(blogPost);
+        blogPostRepository.saveAndFlush(blogPost);
         BLOG_POST_ID = blogPost.getId();
     }
 }
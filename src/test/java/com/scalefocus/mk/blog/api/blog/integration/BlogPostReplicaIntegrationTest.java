@@ -0,0 +1,210 @@
+package com.scalefocus.mk.blog.api.blog.integration;
+
+import com.scalefocus.mk.blog.api.blog.BlogPostRepository;
+import com.scalefocus.mk.blog.api.blog.BlogPostService;
+import com.scalefocus.mk.blog.api.core.config.EnvironmentInitializer;
+import io.github.cdimascio.dotenv.Dotenv;
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the routing of the application to a read replica.
+ * <p>
+ * A second MySQL container stands for a replica that never catches up: it gets the schema of
+ * the primary but none of its writes, so that a row present on one database only tells which
+ * one served a query. The application runs with its own data source, JPA transaction manager
+ * and bean post processors, with {@code blog.datasource.replicas.urls} pointing at the replica.
+ * The tests are not transactional, since a test transaction would hold a single connection of
+ * the primary for every statement.
+ * </p>
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Testcontainers
+@ContextConfiguration(initializers = {EnvironmentInitializer.class, TestProfileInitializer.class}, classes = TestContainersConfig.class)
+class BlogPostReplicaIntegrationTest {
+
+    private static final String MYSQL_IMAGE = Dotenv.load().get("MYSQL_IMAGE");
+
+    private static final int REPLICA_POST_ID = 1_000_001;
+
+    private static final int SHARED_POST_ID = 1_000_002;
+
+    private static final String WRITER = "replica-writer";
+
+    private static final String POST_URL = "/api/v1/posts/%d";
+
+    private static final String SQL_STATEMENTS = "blog.sql.statements";
+
+    private static final String INSERT_POST_SQL =
+            "INSERT INTO blog_post (id, title, text, owner_username, version) VALUES (?, ?, ?, ?, 0)";
+
+    private static final String DELETE_POSTS_SQL = "DELETE FROM blog_post WHERE id IN (?, ?)";
+
+    private static final String COUNT_POST_SQL = "SELECT COUNT(*) FROM blog_post WHERE id = ?";
+
+    @Container
+    private static final MySQLContainer<?> replicaContainer = new MySQLContainer<>(MYSQL_IMAGE);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
+    @Autowired
+    private BlogPostService blogPostService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private KeycloakClient keycloakClient;
+
+    private final JdbcTemplate replica = new JdbcTemplate(dataSource(replicaContainer));
+
+    private JdbcTemplate primary;
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("blog.datasource.replicas.urls", replicaContainer::getJdbcUrl);
+    }
+
+    /**
+     * Creates the schema of the application on the replica, as replication would.
+     */
+    @BeforeAll
+    @SneakyThrows
+    static void createReplicaSchema() {
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource(replicaContainer));
+        liquibase.setChangeLog("classpath:/db/changelog/changelog-master.xml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+    }
+
+    /**
+     * Sets up the test data before each test.
+     * <p>
+     * One post exists on the replica only, the other on both databases, owned by the writer of
+     * the tests.
+     * </p>
+     */
+    @BeforeEach
+    void createPosts() {
+        primary = new JdbcTemplate(dataSource(TestContainersConfig.mySQLContainer));
+        replica.update(INSERT_POST_SQL, REPLICA_POST_ID, "Replica only", "Served by the replica", WRITER);
+        replica.update(INSERT_POST_SQL, SHARED_POST_ID, "Replicated", "Served by either", WRITER);
+        primary.update(INSERT_POST_SQL, SHARED_POST_ID, "Replicated", "Served by either", WRITER);
+    }
+
+    /**
+     * Cleans up the test data and the authentication after each test.
+     */
+    @AfterEach
+    void deletePosts() {
+        SecurityContextHolder.clearContext();
+        replica.update(DELETE_POSTS_SQL, REPLICA_POST_ID, SHARED_POST_ID);
+        primary.update(DELETE_POSTS_SQL, REPLICA_POST_ID, SHARED_POST_ID);
+    }
+
+    /**
+     * Tests that repository reads go to the replica through the JPA transaction manager.
+     * <p>
+     * The read-only transactions of the repositories mark the connection read-only before its
+     * first statement, which the lazy proxy of the application routes to the replica.
+     * </p>
+     */
+    @Test
+    void repositoryReadsFromReplica() {
+        assertInstanceOf(JpaTransactionManager.class, transactionManager);
+
+        assertTrue(blogPostRepository.findById(REPLICA_POST_ID).isPresent());
+    }
+
+    /**
+     * Tests that the statements of a request served by the replica are counted.
+     * <p>
+     * The post processor counting statements must wrap the routing proxy rather than the
+     * primary, or the statements run on the replica would be missing from the budget.
+     * </p>
+     */
+    @Test
+    @SneakyThrows
+    void countsStatementsServedByReplica() {
+        mockMvc.perform(get(String.format(POST_URL, REPLICA_POST_ID))
+                        .header("Authorization", "Bearer " + keycloakClient.getJwtToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Replica only"))
+                .andExpect(request().attribute(SQL_STATEMENTS, greaterThanOrEqualTo(1)));
+    }
+
+    /**
+     * Tests that a write of the service goes to the primary and is read back by its author.
+     * <p>
+     * The removal is written to the primary only, so the replica keeps lagging behind it. The
+     * writer then reads from the primary, within the read-your-writes window, while another user
+     * still reads the lagging replica.
+     * </p>
+     */
+    @Test
+    void serviceWritesToPrimaryAndItsAuthorReadsFromPrimary() {
+        authenticate(WRITER);
+
+        blogPostService.removeBlogPost(SHARED_POST_ID);
+
+        assertEquals(0, primary.queryForObject(COUNT_POST_SQL, Integer.class, SHARED_POST_ID));
+        assertEquals(1, replica.queryForObject(COUNT_POST_SQL, Integer.class, SHARED_POST_ID));
+        assertTrue(blogPostRepository.findById(SHARED_POST_ID).isEmpty());
+
+        authenticate("another-reader");
+
+        assertTrue(blogPostRepository.findById(SHARED_POST_ID).isPresent());
+    }
+
+    private static void authenticate(String username) {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .claim("preferred_username", username)
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+
+    private static DataSource dataSource(MySQLContainer<?> container) {
+        return new DriverManagerDataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+    }
+}
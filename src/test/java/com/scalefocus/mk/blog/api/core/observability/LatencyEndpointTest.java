@@ -0,0 +1,69 @@
+package com.scalefocus.mk.blog.api.core.observability;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link LatencyEndpoint} class.
+ * <p>
+ * This class records durations into service timers and tests the percentiles, the ordering of
+ * the operations and the operations of timers without published percentiles.
+ * </p>
+ */
+final class LatencyEndpointTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final LatencyEndpoint endpoint = new LatencyEndpoint(meterRegistry);
+
+    @Test
+    void listsOperationsSlowestFirst() {
+        record(timer("getBlogPosts"), 5);
+        record(timer("updateBlogPost"), 50);
+
+        List<LatencyEndpoint.OperationLatency> operations = endpoint.latencies().get("blog.service");
+
+        assertEquals(2, operations.size());
+        LatencyEndpoint.OperationLatency slowest = operations.get(0);
+        assertEquals(Map.of("method", "updateBlogPost"), slowest.tags());
+        assertEquals(100, slowest.count());
+        assertEquals(50, slowest.p50(), 5);
+        assertEquals(50, slowest.p99(), 5);
+        assertEquals("getBlogPosts", operations.get(1).tags().get("method"));
+    }
+
+    @Test
+    void leavesUnpublishedPercentilesEmpty() {
+        Timer.builder("spring.data.repository.invocations").register(meterRegistry)
+                .record(Duration.ofMillis(3));
+
+        LatencyEndpoint.OperationLatency operation =
+                endpoint.latencies().get("spring.data.repository.invocations").get(0);
+
+        assertEquals(1, operation.count());
+        assertEquals(3, operation.max(), 0.001);
+        assertNull(operation.p50());
+        assertNull(operation.p99());
+        assertTrue(endpoint.latencies().get("http.server.requests").isEmpty());
+    }
+
+    private Timer timer(String method) {
+        return Timer.builder("blog.service")
+                .tag("method", method)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    private static void record(Timer timer, long millis) {
+        for (int i = 0; i < 100; i++) {
+            timer.record(Duration.ofMillis(millis));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.scalefocus.mk.blog.api.core.observability;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link SqlStatementBudget} and {@link SqlStatementCounter} classes.
+ * <p>
+ * This class executes statements through a counting data source over mocked connections and
+ * tests the statements counted per request, the budget and the statements outside requests.
+ * </p>
+ */
+final class SqlStatementBudgetTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SqlStatementBudget budget = new SqlStatementBudget(2, meterRegistry);
+
+    private final DataSource dataSource = mock(DataSource.class);
+
+    @AfterEach
+    void tearDown() {
+        SqlStatementCounter.stop();
+    }
+
+    @Test
+    void countsStatementsOfRequest() throws SQLException {
+        MockHttpServletRequest request = request();
+        budget.preHandle(request, new MockHttpServletResponse(), null);
+
+        executeStatements(2);
+        budget.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        assertEquals(2, request.getAttribute(SqlStatementBudget.STATEMENTS_ATTRIBUTE));
+        assertEquals(2, meterRegistry.summary(SqlStatementBudget.STATEMENTS_METRIC,
+                "endpoint", "POST /api/v1/posts/{postId}/tags/{tagName}").totalAmount());
+        assertNull(meterRegistry.find(SqlStatementBudget.EXCEEDED_METRIC).counter());
+    }
+
+    @Test
+    void flagsRequestsOverBudget() throws SQLException {
+        MockHttpServletRequest request = request();
+        budget.preHandle(request, new MockHttpServletResponse(), null);
+
+        executeStatements(3);
+        budget.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        assertEquals(3, request.getAttribute(SqlStatementBudget.STATEMENTS_ATTRIBUTE));
+        assertEquals(1, meterRegistry.counter(SqlStatementBudget.EXCEEDED_METRIC,
+                "endpoint", "POST /api/v1/posts/{postId}/tags/{tagName}").count());
+    }
+
+    @Test
+    void ignoresStatementsOutsideRequests() throws SQLException {
+        executeStatements(1);
+
+        assertNull(SqlStatementCounter.stop());
+    }
+
+    private void executeStatements(int statements) throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+
+        try (Connection counting = SqlStatementCounter.wrap(dataSource).getConnection()) {
+            for (int i = 0; i < statements; i++) {
+                PreparedStatement statement = counting.prepareStatement("SELECT 1");
+                statement.setInt(1, i);
+                statement.executeQuery();
+            }
+        }
+        verify(connection).close();
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/posts/1/tags/java");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/posts/{postId}/tags/{tagName}");
+        return request;
+    }
+}
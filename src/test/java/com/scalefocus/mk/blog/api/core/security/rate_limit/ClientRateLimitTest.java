@@ -0,0 +1,140 @@
+package com.scalefocus.mk.blog.api.core.security.rate_limit;
+
+import com.scalefocus.mk.blog.api.shared.auth.AuthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the {@link ClientRateLimit} class.
+ */
+final class ClientRateLimitTest {
+
+    private static final String IP_ADDRESS = "10.0.0.1";
+
+    private final ClientRateLimitCache cache = new ClientRateLimitCache(1_000_000, Duration.ofMinutes(45));
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void allowsRequestsWithinLimit() {
+        ClientRateLimit rateLimit = rateLimit(3, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimit.preHandle(request(IP_ADDRESS), new MockHttpServletResponse(), null));
+        }
+    }
+
+    @Test
+    void blocksAddressExceedingLimit() {
+        ClientRateLimit rateLimit = rateLimit(3, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        for (int i = 0; i < 3; i++) {
+            rateLimit.preHandle(request(IP_ADDRESS), new MockHttpServletResponse(), null);
+        }
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(rateLimit.preHandle(request(IP_ADDRESS), response, null));
+        assertEquals(429, response.getStatus());
+        assertTrue(rateLimit.preHandle(request("10.0.0.2"), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void countsConcurrentRequestsExactly() throws InterruptedException {
+        int maxRequests = 500;
+        ClientRateLimit rateLimit = rateLimit(maxRequests, Duration.ofHours(1), Duration.ofHours(1));
+        AtomicInteger allowed = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 10_000; i++) {
+                executor.submit(() -> {
+                    if (rateLimit.preHandle(request(IP_ADDRESS), new MockHttpServletResponse(), null)) {
+                        allowed.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        assertEquals(maxRequests, allowed.get());
+    }
+
+    @Test
+    void keepsAddressBlockedAfterPeriod() {
+        ClientRateLimit rateLimit = rateLimit(3, Duration.ofMinutes(1), Duration.ofMinutes(45));
+        for (int i = 0; i < 4; i++) {
+            rateLimit.preHandle(request(IP_ADDRESS), new MockHttpServletResponse(), null);
+        }
+
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertFalse(rateLimit.preHandle(request(IP_ADDRESS), new MockHttpServletResponse(), null));
+
+        clock.addAndGet(Duration.ofMinutes(45).toNanos());
+        assertTrue(rateLimit.preHandle(request(IP_ADDRESS), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void onlyRejectsExcessRequestsWithoutBlockDuration() {
+        ClientRateLimit rateLimit = rateLimit(3, Duration.ofMinutes(1), Duration.ZERO);
+        for (int i = 0; i < 4; i++) {
+            rateLimit.preHandle(request(IP_ADDRESS), new MockHttpServletResponse(), null);
+        }
+
+        clock.addAndGet(Duration.ofSeconds(20).toNanos());
+        assertTrue(rateLimit.preHandle(request(IP_ADDRESS), new MockHttpServletResponse(), null));
+        assertFalse(rateLimit.preHandle(request(IP_ADDRESS), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void keysAuthenticatedClientsOnUsernameWithoutSession() {
+        AuthService authService = mock(AuthService.class);
+        when(authService.getCurrentUsername()).thenReturn("john");
+        ClientRateLimit rateLimit = rateLimit(ClientKeyResolver.username(authService), 3, Duration.ofMinutes(1), Duration.ZERO);
+        MockHttpServletRequest request = request(IP_ADDRESS);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimit.preHandle(request("10.0.0." + i), new MockHttpServletResponse(), null));
+        }
+
+        assertFalse(rateLimit.preHandle(request, new MockHttpServletResponse(), null));
+        assertNull(request.getSession(false));
+
+        when(authService.getCurrentUsername()).thenReturn(null);
+        assertTrue(rateLimit.preHandle(request, new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void evictsClientsBeyondMemoryBudget() {
+        ClientRateLimitCache boundedCache = new ClientRateLimitCache(100 * ClientRateLimitCache.estimateEntryBytes("10.0.0.1"),
+                Duration.ofMinutes(45));
+        RateLimiter rateLimiter = RateLimitAlgorithm.GCRA.create(3, Duration.ofMinutes(1));
+        for (int i = 0; i < 10_000; i++) {
+            boundedCache.get("10.0." + (i / 100) % 10 + "." + i % 100, rateLimiter, 0);
+        }
+
+        boundedCache.cleanUp();
+        assertTrue(boundedCache.estimatedSize() <= 100);
+        assertTrue(boundedCache.estimatedMemory() <= 100L * ClientRateLimitCache.estimateEntryBytes("10.0.0.1"));
+    }
+
+    private ClientRateLimit rateLimit(int limit, Duration period, Duration blockDuration) {
+        return rateLimit(ClientKeyResolver.ipAddress(), limit, period, blockDuration);
+    }
+
+    private ClientRateLimit rateLimit(ClientKeyResolver clientKeyResolver, int limit, Duration period, Duration blockDuration) {
+        RateLimiter rateLimiter = RateLimitAlgorithm.GCRA.create(limit, period);
+        return new ClientRateLimit(new InMemoryRateLimitStore(cache, rateLimiter, blockDuration, clock::get), clientKeyResolver);
+    }
+
+    private static MockHttpServletRequest request(String ipAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(ipAddress);
+        return request;
+    }
+}
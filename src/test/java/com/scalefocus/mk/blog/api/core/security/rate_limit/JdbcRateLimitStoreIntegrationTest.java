@@ -0,0 +1,171 @@
+package com.scalefocus.mk.blog.api.core.security.rate_limit;
+
+import io.github.cdimascio.dotenv.Dotenv;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.util.unit.DataSize;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the {@link JdbcRateLimitStore} class.
+ * <p>
+ * Two stores on the same route stand for two replicas sharing the MySQL database.
+ * </p>
+ */
+@Testcontainers
+final class JdbcRateLimitStoreIntegrationTest {
+
+    private static final String ROUTE = "ip.default";
+    private static final String CLIENT = "10.0.0.1";
+    private static final Duration PERIOD = Duration.ofSeconds(10);
+    private static final int LIMIT = 10;
+
+    @Container
+    private static final MySQLContainer<?> mySQLContainer = new MySQLContainer<>(Dotenv.load().get("MYSQL_IMAGE"));
+
+    private static JdbcTemplate jdbcTemplate;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-07-01T00:00:00Z"));
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                mySQLContainer.getJdbcUrl(), mySQLContainer.getUsername(), mySQLContainer.getPassword());
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.setChangeLog("classpath:/db/changelog/changelog-master.xml");
+        liquibase.afterPropertiesSet();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @BeforeEach
+    void clearBuckets() {
+        jdbcTemplate.update("DELETE FROM rate_limit_bucket");
+    }
+
+    @Test
+    void enforcesSingleLimitAcrossReplicas() {
+        JdbcRateLimitStore first = store(1, Duration.ZERO);
+        JdbcRateLimitStore second = store(1, Duration.ZERO);
+
+        int admitted = 0;
+        for (int i = 0; i < LIMIT; i++) {
+            admitted += first.tryAcquire(CLIENT) ? 1 : 0;
+            admitted += second.tryAcquire(CLIENT) ? 1 : 0;
+        }
+
+        assertEquals(LIMIT, admitted);
+    }
+
+    @Test
+    void servesLeasedTokensWithoutRoundTrip() {
+        JdbcRateLimitStore store = store(5, Duration.ZERO);
+
+        assertTrue(store.tryAcquire(CLIENT));
+        long tat = tat();
+        for (int i = 0; i < 4; i++) {
+            assertTrue(store.tryAcquire(CLIENT));
+        }
+
+        assertEquals(clock.millis() + 5 * PERIOD.toMillis() / LIMIT, tat);
+        assertEquals(tat, tat());
+    }
+
+    @Test
+    void creditsBackUnusedTokensOfExpiredLeases() {
+        JdbcRateLimitStore store = store(5, Duration.ZERO);
+        assertTrue(store.tryAcquire(CLIENT));
+        long tat = tat();
+
+        clock.advance(Duration.ofSeconds(2));
+        store.flush();
+
+        assertEquals(tat - 4 * PERIOD.toMillis() / LIMIT, tat());
+    }
+
+    @Test
+    void blocksClientOnAllReplicas() {
+        JdbcRateLimitStore first = store(1, Duration.ofMinutes(45));
+        JdbcRateLimitStore second = store(1, Duration.ofMinutes(45));
+        for (int i = 0; i <= LIMIT; i++) {
+            first.tryAcquire(CLIENT);
+        }
+
+        clock.advance(PERIOD.multipliedBy(2));
+        assertFalse(second.tryAcquire(CLIENT));
+
+        clock.advance(Duration.ofMinutes(45));
+        assertTrue(second.tryAcquire(CLIENT));
+    }
+
+    @Test
+    void deletesRowsOfIdleClients() {
+        JdbcRateLimitStore store = store(1, Duration.ZERO);
+        assertTrue(store.tryAcquire(CLIENT));
+
+        clock.advance(Duration.ofHours(1));
+        store.flush();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rate_limit_bucket", Integer.class));
+    }
+
+    private JdbcRateLimitStore store(int leaseSize, Duration blockDuration) {
+        RateLimitProperties properties = new RateLimitProperties(RateLimitProperties.Store.JDBC, DataSize.ofMegabytes(1),
+                Duration.ofMinutes(45), new RateLimitProperties.Jdbc(leaseSize, Duration.ofSeconds(1), Duration.ofSeconds(1)),
+                Map.of(), Map.of());
+        RateLimitProperties.Route route = new RateLimitProperties.Route(List.of("/**"), List.of(), RateLimitAlgorithm.GCRA,
+                LIMIT, PERIOD, blockDuration);
+        return new JdbcRateLimitStore(jdbcTemplate, ROUTE, properties, route, clock);
+    }
+
+    private long tat() {
+        return jdbcTemplate.queryForObject("SELECT tat FROM rate_limit_bucket WHERE route = ? AND client_key = ?",
+                Long.class, ROUTE, CLIENT);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
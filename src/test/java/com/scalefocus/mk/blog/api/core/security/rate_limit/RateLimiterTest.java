@@ -0,0 +1,82 @@
+package com.scalefocus.mk.blog.api.core.security.rate_limit;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link RateLimiter} implementations.
+ */
+final class RateLimiterTest {
+
+    private static final Duration PERIOD = Duration.ofSeconds(20);
+    private static final long INTERVAL = PERIOD.toNanos() / 20;
+
+    @ParameterizedTest
+    @EnumSource(RateLimitAlgorithm.class)
+    void admitsBurstUpToLimit(RateLimitAlgorithm algorithm) {
+        RateLimiter rateLimiter = algorithm.create(20, PERIOD);
+        long now = PERIOD.toNanos();
+        long state = rateLimiter.initialState(now);
+
+        for (int i = 0; i < 20; i++) {
+            state = rateLimiter.tryAcquire(state, now);
+            assertNotEquals(RateLimiter.REJECTED, state);
+        }
+        assertEquals(RateLimiter.REJECTED, rateLimiter.tryAcquire(state, now));
+    }
+
+    @ParameterizedTest
+    @EnumSource(RateLimitAlgorithm.class)
+    void admitsOneRequestPerEmissionIntervalAfterBurst(RateLimitAlgorithm algorithm) {
+        RateLimiter rateLimiter = algorithm.create(20, PERIOD);
+        long now = PERIOD.toNanos();
+        long state = exhaust(rateLimiter, rateLimiter.initialState(now), now);
+
+        now += INTERVAL;
+        state = rateLimiter.tryAcquire(state, now);
+        assertNotEquals(RateLimiter.REJECTED, state);
+        assertEquals(RateLimiter.REJECTED, rateLimiter.tryAcquire(state, now));
+    }
+
+    @ParameterizedTest
+    @EnumSource(RateLimitAlgorithm.class)
+    void doesNotDoubleBurstAcrossPeriodBoundary(RateLimitAlgorithm algorithm) {
+        RateLimiter rateLimiter = algorithm.create(20, PERIOD);
+        long now = PERIOD.toNanos();
+        long state = exhaust(rateLimiter, rateLimiter.initialState(now), now);
+
+        now += PERIOD.toNanos() / 2;
+        int admitted = 0;
+        while ((state = rateLimiter.tryAcquire(state, now)) != RateLimiter.REJECTED) {
+            admitted++;
+        }
+        assertEquals(10, admitted);
+    }
+
+    @ParameterizedTest
+    @EnumSource(RateLimitAlgorithm.class)
+    void refillsCompletelyAfterIdlePeriod(RateLimitAlgorithm algorithm) {
+        RateLimiter rateLimiter = algorithm.create(20, PERIOD);
+        long now = PERIOD.toNanos();
+        long state = exhaust(rateLimiter, rateLimiter.initialState(now), now);
+
+        now += PERIOD.toNanos() * 10;
+        int admitted = 0;
+        while ((state = rateLimiter.tryAcquire(state, now)) != RateLimiter.REJECTED) {
+            admitted++;
+        }
+        assertEquals(20, admitted);
+    }
+
+    private static long exhaust(RateLimiter rateLimiter, long state, long now) {
+        long next;
+        while ((next = rateLimiter.tryAcquire(state, now)) != RateLimiter.REJECTED) {
+            state = next;
+        }
+        return state;
+    }
+}
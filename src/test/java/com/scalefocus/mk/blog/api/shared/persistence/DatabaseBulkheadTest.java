@@ -0,0 +1,162 @@
+package com.scalefocus.mk.blog.api.shared.persistence;
+
+import com.scalefocus.mk.blog.api.shared.exceptions.EntityPersistenceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link DatabaseBulkhead} and {@link DatabaseBulkheadAspect} classes.
+ * <p>
+ * This class tests the rejection of accesses once the permits are taken, the unbounded wait of
+ * background work, the reentrancy of permits, the separation of reads and writes and the
+ * classification of methods.
+ * </p>
+ */
+final class DatabaseBulkheadTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private DatabaseBulkhead bulkhead;
+
+    @BeforeEach
+    void setUp() {
+        bulkhead = new DatabaseBulkhead(1, 1, 1, Duration.ofMillis(20), meterRegistry);
+    }
+
+    @Test
+    void rejectsWhenNoPermitIsAvailable() throws Throwable {
+        CountDownLatch acquired = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> holder = hold(DatabaseBulkhead.Access.READ, acquired, release);
+        acquired.await();
+
+        EntityPersistenceException exception = assertThrows(EntityPersistenceException.class,
+                () -> bulkhead.execute(DatabaseBulkhead.Access.READ, () -> "read"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+        assertEquals("write", bulkhead.execute(DatabaseBulkhead.Access.WRITE, () -> "write"));
+        assertEquals(1, meterRegistry.counter(DatabaseBulkhead.REJECTED_METRIC, "access", "read").count());
+
+        release.countDown();
+        holder.get();
+        assertEquals("read", bulkhead.execute(DatabaseBulkhead.Access.READ, () -> "read"));
+    }
+
+    @Test
+    void longReadsHaveTheirOwnCompartment() throws Throwable {
+        CountDownLatch acquired = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> holder = hold(DatabaseBulkhead.Access.LONG_READ, acquired, release);
+        acquired.await();
+
+        assertEquals("read", bulkhead.execute(DatabaseBulkhead.Access.READ, () -> "read"));
+        assertThrows(EntityPersistenceException.class,
+                () -> bulkhead.execute(DatabaseBulkhead.Access.LONG_READ, () -> "export"));
+        assertEquals(1, meterRegistry.counter(DatabaseBulkhead.REJECTED_METRIC, "access", "long-read").count());
+
+        release.countDown();
+        holder.get();
+    }
+
+    @Test
+    void permitsAreReentrant() throws Throwable {
+        Object result = bulkhead.execute(DatabaseBulkhead.Access.WRITE,
+                () -> bulkhead.execute(DatabaseBulkhead.Access.WRITE,
+                        () -> bulkhead.execute(DatabaseBulkhead.Access.READ, () -> "nested")));
+
+        assertEquals("nested", result);
+        assertEquals(1, meterRegistry.timer(DatabaseBulkhead.WAIT_METRIC, "access", "write").count());
+        assertEquals(0, meterRegistry.timer(DatabaseBulkhead.WAIT_METRIC, "access", "read").count());
+    }
+
+    @Test
+    void releasesPermitOnFailure() throws Throwable {
+        assertThrows(IllegalStateException.class, () -> bulkhead.execute(DatabaseBulkhead.Access.WRITE, () -> {
+            throw new IllegalStateException("Failed");
+        }));
+
+        assertEquals("write", bulkhead.execute(DatabaseBulkhead.Access.WRITE, () -> "write"));
+    }
+
+    @Test
+    void backgroundWorkWaitsForAPermit() throws Throwable {
+        CountDownLatch acquired = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> holder = hold(DatabaseBulkhead.Access.WRITE, acquired, release);
+        acquired.await();
+
+        List<Object> results = new CopyOnWriteArrayList<>();
+        Thread background = Thread.ofVirtual().start(() -> BackgroundDatabaseAccess.run(() -> {
+            try {
+                results.add(bulkhead.execute(DatabaseBulkhead.Access.WRITE, () -> "background"));
+            } catch (Throwable e) {
+                results.add(e);
+            }
+        }));
+        background.join(Duration.ofMillis(200));
+        assertTrue(background.isAlive());
+
+        release.countDown();
+        holder.get();
+        background.join();
+        assertEquals(List.of("background"), results);
+        assertEquals(0, meterRegistry.counter(DatabaseBulkhead.REJECTED_METRIC, "access", "write").count());
+        assertFalse(BackgroundDatabaseAccess.isActive());
+    }
+
+    @Test
+    void classifiesAccess() throws NoSuchMethodException {
+        assertEquals(DatabaseBulkhead.Access.READ, DatabaseBulkheadAspect.accessOf(Sample.class.getMethod("findAll")));
+        assertEquals(DatabaseBulkhead.Access.WRITE, DatabaseBulkheadAspect.accessOf(Sample.class.getMethod("insertAll")));
+        assertEquals(DatabaseBulkhead.Access.READ, DatabaseBulkheadAspect.accessOf(Sample.class.getMethod("export")));
+        assertEquals(DatabaseBulkhead.Access.WRITE, DatabaseBulkheadAspect.accessOf(Sample.class.getMethod("findAndLock")));
+        assertEquals(DatabaseBulkhead.Access.LONG_READ, DatabaseBulkheadAspect.accessOf(Sample.class.getMethod("stream")));
+    }
+
+    private CompletableFuture<Object> hold(DatabaseBulkhead.Access access, CountDownLatch acquired,
+                                           CountDownLatch release) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return bulkhead.execute(access, () -> {
+                    acquired.countDown();
+                    release.await();
+                    return null;
+                });
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    static class Sample {
+
+        public void findAll() {
+        }
+
+        public void insertAll() {
+        }
+
+        @Transactional(readOnly = true)
+        public void export() {
+        }
+
+        @Transactional
+        public void findAndLock() {
+        }
+
+        @LongRunningRead
+        @Transactional(readOnly = true)
+        public void stream() {
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.scalefocus.mk.blog.api.shared.persistence;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the {@link HibernateStatisticsMetrics} class.
+ * <p>
+ * This class tests that the Hibernate statistics are published as counters when they are
+ * enabled, and that nothing is published when they are not.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+final class HibernateStatisticsMetricsTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Statistics statistics;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+    }
+
+    @Test
+    void publishesEnabledStatistics() {
+        when(statistics.isStatisticsEnabled()).thenReturn(true);
+        when(statistics.getPrepareStatementCount()).thenReturn(7L);
+        when(statistics.getFlushCount()).thenReturn(2L);
+        when(statistics.getTransactionCount()).thenReturn(5L);
+        when(statistics.getSuccessfulTransactionCount()).thenReturn(4L);
+        when(statistics.getEntityInsertCount()).thenReturn(3L);
+        when(statistics.getSecondLevelCacheHitCount()).thenReturn(9L);
+
+        new HibernateStatisticsMetrics(entityManagerFactory).bindTo(registry);
+
+        assertEquals(7, registry.get("hibernate.statements").tag("status", "prepared").functionCounter().count());
+        assertEquals(2, registry.get("hibernate.flushes").functionCounter().count());
+        assertEquals(4, registry.get("hibernate.transactions").tag("result", "success").functionCounter().count());
+        assertEquals(1, registry.get("hibernate.transactions").tag("result", "failure").functionCounter().count());
+        assertEquals(3, registry.get("hibernate.entities").tag("operation", "insert").functionCounter().count());
+        assertEquals(9, registry.get("hibernate.second.level.cache.requests").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void publishesNothingWhenStatisticsAreDisabled() {
+        when(statistics.isStatisticsEnabled()).thenReturn(false);
+
+        new HibernateStatisticsMetrics(entityManagerFactory).bindTo(registry);
+
+        assertTrue(registry.getMeters().isEmpty());
+    }
+}
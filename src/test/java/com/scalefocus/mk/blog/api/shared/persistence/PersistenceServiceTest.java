@@ -0,0 +1,145 @@
+package com.scalefocus.mk.blog.api.shared.persistence;
+
+import com.scalefocus.mk.blog.api.shared.exceptions.EntityPersistenceException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.RollbackException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link PersistenceService} class.
+ * <p>
+ * This class tests that units of work flush only the transactions they start, that they join
+ * an outer transaction, and that failures of the work and of the commit are mapped to 409
+ * Conflict or 500 Internal Server Error.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+final class PersistenceServiceTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager em;
+
+    private PersistenceService persistenceService;
+
+    @BeforeEach
+    void setUp() {
+        persistenceService = new PersistenceService(transactionManager);
+        persistenceService.em = em;
+    }
+
+    @Test
+    void unitOfWorkFlushesOnceAndCommits() {
+        SimpleTransactionStatus status = new SimpleTransactionStatus(true);
+        SimpleTransactionStatus joined = new SimpleTransactionStatus(false);
+        when(transactionManager.getTransaction(any())).thenReturn(status, joined);
+
+        String result = persistenceService.inUnitOfWork(() -> {
+            persistenceService.persist(new Sample());
+            persistenceService.persist(new Sample());
+            return "done";
+        });
+
+        assertEquals("done", result);
+        verify(em, times(2)).persist(any(Sample.class));
+        verify(em, times(1)).flush();
+        verify(transactionManager, times(1)).commit(status);
+    }
+
+    @Test
+    void unitOfWorkJoinsOuterTransaction() {
+        SimpleTransactionStatus status = new SimpleTransactionStatus(false);
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+
+        persistenceService.inUnitOfWork(() -> {
+            persistenceService.persist(new Sample());
+            return null;
+        });
+
+        verify(em, times(1)).persist(any(Sample.class));
+        verify(em, never()).flush();
+    }
+
+    @Test
+    void constraintViolationIsConflict() {
+        SimpleTransactionStatus status = new SimpleTransactionStatus(true);
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        doThrow(new DataIntegrityViolationException("Duplicate entry")).when(em).flush();
+
+        EntityPersistenceException exception = assertThrows(EntityPersistenceException.class,
+                () -> persistenceService.persist(new Sample()));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+        assertEquals("Title already exists.", exception.getMessage());
+        verify(transactionManager, times(1)).rollback(status);
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void constraintViolationOnCommitIsConflict() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus(true));
+        ConstraintViolationException violation = new ConstraintViolationException(
+                "Duplicate entry", new SQLException("Duplicate entry", "23000"), "title");
+        doThrow(new TransactionSystemException("Could not commit JPA transaction",
+                new RollbackException("Transaction rolled back", violation)))
+                .when(transactionManager).commit(any());
+
+        EntityPersistenceException exception = assertThrows(EntityPersistenceException.class,
+                () -> persistenceService.persist(new Sample()));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+    }
+
+    @Test
+    void otherFailureIsInternalServerError() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus(true));
+        doThrow(new TransactionSystemException("Could not commit JPA transaction",
+                new RollbackException("Transaction rolled back", new PersistenceException("Connection reset"))))
+                .when(transactionManager).commit(any());
+
+        EntityPersistenceException exception = assertThrows(EntityPersistenceException.class,
+                () -> persistenceService.persist(new Sample()));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, exception.getStatus());
+        assertEquals("Could not persist changes.", exception.getMessage());
+    }
+
+    @Test
+    void exceptionsOfTheWorkAreRethrownUnchanged() {
+        SimpleTransactionStatus status = new SimpleTransactionStatus(false);
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+
+        assertThrows(EntityNotFoundException.class, () -> persistenceService.inUnitOfWork(() -> {
+            throw new EntityNotFoundException("Could not find entity with id: 1");
+        }));
+        assertThrows(UnsupportedOperationException.class, () -> persistenceService.inUnitOfWork(() -> {
+            throw new UnsupportedOperationException("Not the owner");
+        }));
+        verify(transactionManager, times(2)).rollback(status);
+        verify(em, never()).flush();
+    }
+
+    private static final class Sample implements EntityMarker {
+    }
+}
@@ -0,0 +1,114 @@
+package com.scalefocus.mk.blog.api.shared.persistence;
+
+import com.scalefocus.mk.blog.api.shared.auth.AuthService;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link ReplicaPool} and {@link ReadYourWrites} classes.
+ * <p>
+ * This class hands out connections of mocked replicas and tests the round-robin, the fallback
+ * on failing replicas, the reads of users within their read-your-writes window and the loads
+ * of shared caches shortly after a write.
+ * </p>
+ */
+final class ReplicaPoolTest {
+
+    private final AuthService authService = mock(AuthService.class);
+
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(authService, Duration.ofMinutes(1), 100);
+
+    private final DataSource primary = dataSource();
+
+    @Test
+    void readsFromReplicasInTurn() throws SQLException {
+        DataSource first = dataSource();
+        DataSource second = dataSource();
+        DataSource readOnly = new ReplicaPool(List.of(first, second), readYourWrites).readOnlyDataSource(primary);
+
+        assertSame(first.getConnection(), readOnly.getConnection());
+        assertSame(second.getConnection(), readOnly.getConnection());
+        assertSame(first.getConnection(), readOnly.getConnection());
+    }
+
+    @Test
+    void skipsUnhealthyReplicas() throws SQLException {
+        DataSource failing = mock(DataSource.class);
+        when(failing.getConnection()).thenThrow(new SQLException("Connection refused"));
+        DataSource healthy = dataSource();
+        ReplicaPool pool = new ReplicaPool(List.of(failing, healthy), readYourWrites);
+        DataSource readOnly = pool.readOnlyDataSource(primary);
+
+        assertSame(healthy.getConnection(), readOnly.getConnection());
+        assertSame(healthy.getConnection(), readOnly.getConnection());
+        verify(failing, times(1)).getConnection();
+
+        pool.checkHealth();
+        verify(failing, times(2)).getConnection();
+    }
+
+    @Test
+    void readsFromPrimaryWithoutHealthyReplica() throws SQLException {
+        DataSource failing = mock(DataSource.class);
+        when(failing.getConnection()).thenThrow(new SQLException("Connection refused"));
+        DataSource readOnly = new ReplicaPool(List.of(failing), readYourWrites).readOnlyDataSource(primary);
+
+        assertSame(primary.getConnection(), readOnly.getConnection());
+    }
+
+    @Test
+    void readsOwnWritesFromPrimary() throws SQLException {
+        DataSource replica = dataSource();
+        DataSource readOnly = new ReplicaPool(List.of(replica), readYourWrites).readOnlyDataSource(primary);
+        when(authService.getCurrentUsername()).thenReturn("writer");
+        readYourWrites.recordWrite();
+
+        assertSame(primary.getConnection(), readOnly.getConnection());
+
+        when(authService.getCurrentUsername()).thenReturn("reader");
+        assertSame(replica.getConnection(), readOnly.getConnection());
+    }
+
+    @Test
+    void fillsSharedCachesFromPrimaryAfterAnyWrite() throws Exception {
+        DataSource laggingReplica = dataSource();
+        ReadYourWrites shortWindow = new ReadYourWrites(authService, Duration.ofMillis(100), 100);
+        DataSource readOnly = new ReplicaPool(List.of(laggingReplica), shortWindow).readOnlyDataSource(primary);
+
+        assertSame(laggingReplica.getConnection(), SharedCacheLoad.load(() -> getConnection(readOnly)));
+
+        shortWindow.recordWrite();
+        assertSame(primary.getConnection(), SharedCacheLoad.load(() -> getConnection(readOnly)));
+        assertSame(laggingReplica.getConnection(), readOnly.getConnection());
+
+        Thread.sleep(150);
+        assertSame(laggingReplica.getConnection(), SharedCacheLoad.load(() -> getConnection(readOnly)));
+    }
+
+    private static Connection getConnection(DataSource dataSource) {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static DataSource dataSource() {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        try {
+            when(dataSource.getConnection()).thenReturn(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return dataSource;
+    }
+}
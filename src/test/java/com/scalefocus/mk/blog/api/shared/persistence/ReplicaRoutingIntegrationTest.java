@@ -0,0 +1,106 @@
+package com.scalefocus.mk.blog.api.shared.persistence;
+
+import com.scalefocus.mk.blog.api.shared.auth.AuthService;
+import io.github.cdimascio.dotenv.Dotenv;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Integration tests for the routing of read-only transactions to the {@link ReplicaPool}.
+ * <p>
+ * Two MySQL containers stand for the primary and a replica. They are not replicating: every
+ * database holds its own name in a table, so that a query tells which one served it.
+ * </p>
+ */
+@Testcontainers
+final class ReplicaRoutingIntegrationTest {
+
+    private static final String MYSQL_IMAGE = Dotenv.load().get("MYSQL_IMAGE");
+
+    @Container
+    private static final MySQLContainer<?> primaryContainer = new MySQLContainer<>(MYSQL_IMAGE);
+
+    @Container
+    private static final MySQLContainer<?> replicaContainer = new MySQLContainer<>(MYSQL_IMAGE);
+
+    private static DataSource primary;
+
+    private static DataSource replica;
+
+    private final AuthService authService = mock(AuthService.class);
+
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(authService, Duration.ofMinutes(1), 100);
+
+    @BeforeAll
+    static void createDatabases() {
+        primary = dataSource(primaryContainer);
+        replica = dataSource(replicaContainer);
+        new JdbcTemplate(primary).execute("CREATE TABLE server (name VARCHAR(16))");
+        new JdbcTemplate(primary).update("INSERT INTO server (name) VALUES ('primary')");
+        new JdbcTemplate(replica).execute("CREATE TABLE server (name VARCHAR(16))");
+        new JdbcTemplate(replica).update("INSERT INTO server (name) VALUES ('replica')");
+    }
+
+    @BeforeEach
+    void login() {
+        when(authService.getCurrentUsername()).thenReturn("beforecool");
+    }
+
+    @Test
+    void routesReadOnlyTransactionsToReplica() {
+        DataSource routing = routing(List.of(replica));
+
+        assertEquals("replica", server(routing, true));
+        assertEquals("primary", server(routing, false));
+    }
+
+    @Test
+    void routesReadsToPrimaryWithinReadYourWritesWindow() {
+        DataSource routing = routing(List.of(replica));
+        readYourWrites.recordWrite();
+
+        assertEquals("primary", server(routing, true));
+    }
+
+    @Test
+    void routesReadsAroundUnreachableReplica() {
+        DriverManagerDataSource unreachable = new DriverManagerDataSource(
+                "jdbc:mysql://localhost:1/test", replicaContainer.getUsername(), replicaContainer.getPassword());
+
+        assertEquals("replica", server(routing(List.of(unreachable, replica)), true));
+        assertEquals("primary", server(routing(List.of(unreachable)), true));
+    }
+
+    private DataSource routing(List<DataSource> replicas) {
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(new ReplicaPool(replicas, readYourWrites).readOnlyDataSource(primary));
+        return routing;
+    }
+
+    private static String server(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT name FROM server", String.class));
+    }
+
+    private static DataSource dataSource(MySQLContainer<?> container) {
+        return new DriverManagerDataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+    }
+}